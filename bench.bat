@@ -0,0 +1,18 @@
+@echo off
+echo Compiling Chess Pro benchmarks...
+if not exist bin mkdir bin
+if not exist bin-bench mkdir bin-bench
+
+javac --add-modules jdk.incubator.vector -d bin -sourcepath src src\Main.java src\chess\account\*.java src\chess\ai\*.java src\chess\game\*.java src\chess\pieces\*.java src\chess\menu\*.java src\chess\gui\*.java
+if %ERRORLEVEL% NEQ 0 goto failed
+javac -d bin-bench -cp bin bench\chess\bench\*.java
+if %ERRORLEVEL% NEQ 0 goto failed
+
+java --add-modules jdk.incubator.vector -cp bin;bin-bench chess.bench.EngineBenchmarks %*
+goto end
+
+:failed
+echo.
+echo Compilation failed!
+:end
+pause
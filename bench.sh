@@ -0,0 +1,7 @@
+#!/bin/bash
+echo "Compiling Chess Pro benchmarks..."
+mkdir -p bin bin-bench
+find src -name "*.java" > /tmp/sources.txt
+javac --add-modules jdk.incubator.vector -d bin -cp src @/tmp/sources.txt || exit 1
+javac -d bin-bench -cp bin $(find bench -name "*.java") || exit 1
+java --add-modules jdk.incubator.vector -cp bin:bin-bench chess.bench.EngineBenchmarks "$@"
@@ -0,0 +1,103 @@
+package chess.bench;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Minimal time-boxed benchmark runner: warm up, then run timed batches and
+// report the average cost per operation of each measured batch.
+public class Benchmark {
+    private static final long WARMUP_NANOS = 1_000_000_000L;
+    private static final int MEASURE_BATCHES = 5;
+    private static final long BATCH_NANOS = 1_000_000_000L;
+    
+    // Keeps results reachable so the JIT cannot drop the measured work
+    public static volatile long sink;
+    
+    private final List<Result> results = new ArrayList<>();
+    private final long warmupNanos;
+    private final long batchNanos;
+    
+    public interface Operation {
+        long run() throws Exception;
+    }
+    
+    public static class Result {
+        final String name;
+        final String param;
+        final long operations;
+        final double nanosPerOp;
+        final double minNanosPerOp;
+        final double maxNanosPerOp;
+        
+        Result(String name, String param, long operations, double nanosPerOp,
+               double minNanosPerOp, double maxNanosPerOp) {
+            this.name = name;
+            this.param = param;
+            this.operations = operations;
+            this.nanosPerOp = nanosPerOp;
+            this.minNanosPerOp = minNanosPerOp;
+            this.maxNanosPerOp = maxNanosPerOp;
+        }
+        
+        double opsPerSecond() {
+            return 1_000_000_000.0 / nanosPerOp;
+        }
+    }
+    
+    public Benchmark(boolean quick) {
+        this.warmupNanos = quick ? WARMUP_NANOS / 10 : WARMUP_NANOS;
+        this.batchNanos = quick ? BATCH_NANOS / 10 : BATCH_NANOS;
+    }
+    
+    public void measure(String name, String param, Operation operation) throws Exception {
+        runFor(operation, warmupNanos);
+        
+        long totalOps = 0;
+        long totalNanos = 0;
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        for (int batch = 0; batch < MEASURE_BATCHES; batch++) {
+            long start = System.nanoTime();
+            long ops = runFor(operation, batchNanos);
+            long elapsed = System.nanoTime() - start;
+            
+            double perOp = (double) elapsed / ops;
+            min = Math.min(min, perOp);
+            max = Math.max(max, perOp);
+            totalOps += ops;
+            totalNanos += elapsed;
+        }
+        
+        Result result = new Result(name, param, totalOps, (double) totalNanos / totalOps, min, max);
+        results.add(result);
+        System.out.printf(Locale.ROOT, "%-40s %-10s %14.1f ns/op %14.1f ops/s%n",
+                          name, param, result.nanosPerOp, result.opsPerSecond());
+    }
+    
+    private static long runFor(Operation operation, long nanos) throws Exception {
+        long deadline = System.nanoTime() + nanos;
+        long ops = 0;
+        long checksum = 0;
+        do {
+            checksum += operation.run();
+            ops++;
+        } while (System.nanoTime() < deadline);
+        sink += checksum;
+        return ops;
+    }
+    
+    // One row per benchmark so runs can be diffed or loaded into a spreadsheet
+    public void writeCsv(String path) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(path))) {
+            out.println("benchmark,param,operations,ns_per_op,min_ns_per_op,max_ns_per_op,ops_per_sec");
+            for (Result r : results) {
+                out.printf(Locale.ROOT, "%s,%s,%d,%.1f,%.1f,%.1f,%.1f%n", r.name, r.param, r.operations,
+                           r.nanosPerOp, r.minNanosPerOp, r.maxNanosPerOp, r.opsPerSecond());
+            }
+        }
+    }
+}
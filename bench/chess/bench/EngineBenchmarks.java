@@ -0,0 +1,232 @@
+package chess.bench;
+
+import chess.account.AccountManager;
+import chess.ai.ChessAI;
+import chess.ai.NeuralNetwork;
+import chess.ai.Search;
+import chess.ai.TranspositionTable;
+import chess.game.Board;
+import chess.game.ChessGame;
+import chess.game.Move;
+import chess.game.Position;
+import chess.pieces.Piece;
+import chess.pieces.Piece.PieceColor;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+// Benchmarks for the engine, AI and account hot paths on fixed positions.
+//
+//   java -cp bin:bin-bench chess.bench.EngineBenchmarks [--quick] [results.csv]
+public class EngineBenchmarks {
+    private static final String[][] POSITIONS = {
+        {"start", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1"},
+        {"middle", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"},
+        {"endgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"}
+    };
+    
+    // Move cycles that bring each position back to itself, so makeMove can be
+    // timed repeatedly without rebuilding the game
+    private static final String[][] SHUFFLES = {
+        {"g1f3", "g8f6", "f3g1", "f6g8"},
+        {"g1h1", "g8h8", "h1g1", "h8g8"},
+        {"a5a6", "h4g5", "a6a5", "g5h4"}
+    };
+    
+    private static final long SEED = 20240101L;
+    private static final int SEARCH_DEPTH = 7;
+    // "NONE" keeps every technique on
+    private static final String[] FEATURE_CONFIGS = {
+        "NONE", "NULL_MOVE", "LATE_MOVE_REDUCTIONS", "FUTILITY", "ASPIRATION_WINDOWS"
+    };
+    
+    public static void main(String[] args) throws Exception {
+        boolean quick = false;
+        String output = "bench_results.csv";
+        for (String arg : args) {
+            if (arg.equals("--quick")) {
+                quick = true;
+            } else {
+                output = arg;
+            }
+        }
+        
+        Benchmark bench = new Benchmark(quick);
+        
+        for (String[] position : POSITIONS) {
+            String name = position[0];
+            Board board = new ChessGame(position[1]).getBoard();
+            bench.measure("Board.copy", name, () -> board.copy().hash());
+        }
+        
+        for (String[] position : POSITIONS) {
+            String name = position[0];
+            Board board = new ChessGame(position[1]).getBoard();
+            PieceColor attacker = board.getSideToMove() == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+            // One operation queries every square of the board
+            bench.measure("Board.isSquareAttacked", name, () -> {
+                long attacked = 0;
+                for (int square = 0; square < 64; square++) {
+                    if (board.isSquareAttacked(square, attacker)) attacked++;
+                }
+                return attacked;
+            });
+        }
+        
+        for (String[] position : POSITIONS) {
+            String name = position[0];
+            ChessGame game = new ChessGame(position[1]);
+            bench.measure("ChessGame.getLegalMovesForPiece", name, () -> {
+                long moves = 0;
+                for (Piece piece : game.getBoard().getPieces(game.getCurrentPlayer())) {
+                    moves += game.getLegalMovesForPiece(piece.getPosition()).size();
+                }
+                return moves;
+            });
+        }
+        
+        for (int i = 0; i < POSITIONS.length; i++) {
+            String name = POSITIONS[i][0];
+            ChessGame game = new ChessGame(POSITIONS[i][1]);
+            Position[][] cycle = parseMoves(SHUFFLES[i]);
+            int[] next = {0};
+            bench.measure("ChessGame.makeMove", name, () -> {
+                Position[] move = cycle[next[0]];
+                next[0] = (next[0] + 1) % cycle.length;
+                if (!game.makeMove(move[0], move[1])) {
+                    throw new IllegalStateException("Shuffle move rejected in " + name);
+                }
+                return game.getBoard().hash();
+            });
+        }
+        
+        // Fixed-depth searches with each selective search technique turned off in
+        // turn, so its effect on the time to depth shows on its own
+        TranspositionTable table = new TranspositionTable(16);
+        for (String feature : FEATURE_CONFIGS) {
+            for (String[] position : POSITIONS) {
+                Board board = new ChessGame(position[1]).getBoard();
+                bench.measure("Search.depth" + SEARCH_DEPTH + ".without." + feature, position[0], () -> {
+                    // A fresh search and table each time, so no run inherits history
+                    table.clear();
+                    Search search = new Search(table);
+                    for (Search.Feature f : Search.Feature.values()) {
+                        search.setFeature(f, !f.name().equals(feature));
+                    }
+                    return search.search(board, 60_000, SEARCH_DEPTH).getNodes();
+                });
+            }
+        }
+        
+        // The same search evaluating with the neural network instead
+        NeuralNetwork network = NeuralNetwork.getDefault();
+        for (String[] position : POSITIONS) {
+            Board board = new ChessGame(position[1]).getBoard();
+            bench.measure("Search.depth" + SEARCH_DEPTH + ".network", position[0], () -> {
+                table.clear();
+                Search search = new Search(table);
+                search.setNetwork(network);
+                return search.search(board, 60_000, SEARCH_DEPTH).getNodes();
+            });
+        }
+        
+        // A network of trained size through the Vector API kernels and the plain
+        // loops; both walk the same tree, so the node counts must match
+        NeuralNetwork large = randomNetwork(256, SEED);
+        NeuralNetwork[] kernels = large.isVectorized() ? new NeuralNetwork[] {large, large.withScalarKernels()}
+                                                       : new NeuralNetwork[] {large};
+        for (NeuralNetwork net : kernels) {
+            String kind = net.isVectorized() ? "vector" : "scalar";
+            for (String[] position : POSITIONS) {
+                Board board = new ChessGame(position[1]).getBoard();
+                bench.measure("Search.depth" + SEARCH_DEPTH + ".network256." + kind, position[0], () -> {
+                    table.clear();
+                    Search search = new Search(table);
+                    search.setNetwork(net);
+                    return search.search(board, 60_000, SEARCH_DEPTH).getNodes();
+                });
+            }
+        }
+        
+        // The table is cleared before every move so each op is a full search rather
+        // than a replay from hash hits. It is kept small so clearing it costs little
+        // next to the search, and the book is off so the start position is searched too.
+        for (ChessAI.DifficultyLevel level : ChessAI.DifficultyLevel.values()) {
+            for (String[] position : POSITIONS) {
+                ChessGame game = new ChessGame(position[1]);
+                ChessAI ai = new ChessAI(game.getCurrentPlayer(), level, SEED);
+                ai.setHashSize(1);
+                ai.setOpeningBook(null);
+                try {
+                    bench.measure("ChessAI.getBestMove." + level, position[0], () -> {
+                        ai.clearHash();
+                        Move move = ai.getBestMove(game);
+                        return move == null ? 0 : move.getTo().hashCode();
+                    });
+                } finally {
+                    ai.shutdown();
+                }
+            }
+        }
+        
+        File accounts = Files.createTempFile("bench-accounts", ".dat").toFile();
+        accounts.delete();
+        try {
+            AccountManager manager = new AccountManager(accounts.getPath());
+            manager.createAccount("bench", "bench");
+            manager.login("bench", "bench");
+            bench.measure("AccountManager.recordWin", "-", () -> {
+                manager.recordWin();
+                return manager.getCurrentAccount().getTrophies();
+            });
+        } finally {
+            accounts.delete();
+        }
+        
+        bench.writeCsv(output);
+        System.out.println();
+        System.out.println("Results written to " + output);
+    }
+    
+    // A network of random weights in the file layout NeuralNetwork.load() reads. It
+    // plays nonsense but costs the same to run as a trained network of its size.
+    private static NeuralNetwork randomNetwork(int hiddenSize, long seed) throws IOException {
+        Random random = new Random(seed);
+        File file = Files.createTempFile("bench-network", ".nnue").toFile();
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                out.writeInt(0x4E4E5545);
+                out.writeInt(hiddenSize);
+                for (int i = 0; i < 768 * hiddenSize; i++) {
+                    out.writeShort(random.nextInt(65) - 32);
+                }
+                for (int i = 0; i < hiddenSize; i++) {
+                    out.writeShort(random.nextInt(128));
+                }
+                for (int i = 0; i < 2 * hiddenSize; i++) {
+                    out.writeShort(random.nextInt(129) - 64);
+                }
+                out.writeInt(0);
+            }
+            return NeuralNetwork.load(file.getPath());
+        } finally {
+            file.delete();
+        }
+    }
+    
+    private static Position[][] parseMoves(String[] moves) {
+        Position[][] parsed = new Position[moves.length][];
+        for (int i = 0; i < moves.length; i++) {
+            String move = moves[i];
+            parsed[i] = new Position[] {
+                new Position('8' - move.charAt(1), move.charAt(0) - 'a'),
+                new Position('8' - move.charAt(3), move.charAt(2) - 'a')
+            };
+        }
+        return parsed;
+    }
+}
@@ -3,11 +3,13 @@ echo Compiling Chess Pro...
 if not exist bin mkdir bin
 if not exist data mkdir data
 
-javac -d bin -sourcepath src src\Main.java src\chess\account\*.java src\chess\ai\*.java src\chess\game\*.java src\chess\pieces\*.java src\chess\menu\*.java src\chess\gui\*.java
+javac --add-modules jdk.incubator.vector -d bin -sourcepath src src\Main.java src\chess\account\*.java src\chess\ai\*.java src\chess\game\*.java src\chess\pieces\*.java src\chess\menu\*.java src\chess\gui\*.java
 
 if %ERRORLEVEL% EQU 0 (
     echo.
     echo Compilation successful!
+    rem The book is keyed on the engine's position hashes, so rebuild it with the code
+    java -cp bin chess.ai.BookBuilder data\openings.txt data\book.bin
     echo To run the game: run.bat
 ) else (
     echo.
@@ -2,9 +2,11 @@
 echo "Compiling Chess Pro..."
 mkdir -p bin
 find src -name "*.java" > /tmp/sources.txt
-javac -d bin -cp src @/tmp/sources.txt
+javac --add-modules jdk.incubator.vector -d bin -cp src @/tmp/sources.txt
 if [ $? -eq 0 ]; then
     echo "✓ Compilation successful!"
+    # The book is keyed on the engine's position hashes, so rebuild it with the code
+    java -cp bin chess.ai.BookBuilder data/openings.txt data/book.bin
 else
     echo "✗ Compilation failed."
     exit 1
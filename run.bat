@@ -1,4 +1,4 @@
 @echo off
 echo Starting Chess Pro...
-java -cp bin Main
+java --add-modules jdk.incubator.vector -cp bin Main
 pause
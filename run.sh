@@ -1,2 +1,2 @@
 #!/bin/bash
-java -cp bin Main
+java --add-modules jdk.incubator.vector -cp bin Main
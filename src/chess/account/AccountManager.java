@@ -6,10 +6,16 @@ import java.util.Map;
 
 public class AccountManager {
     private static final String DATA_FILE = "data/accounts.dat";
+    private final String dataFile;
     private Map<String, Account> accounts;
     private Account currentAccount;
     
     public AccountManager() {
+        this(DATA_FILE);
+    }
+    
+    public AccountManager(String dataFile) {
+        this.dataFile = dataFile;
         accounts = new HashMap<>();
         loadAccounts();
     }
@@ -76,7 +82,7 @@ public class AccountManager {
     
     @SuppressWarnings("unchecked")
     private void loadAccounts() {
-        File file = new File(DATA_FILE);
+        File file = new File(dataFile);
         if (!file.exists()) {
             file.getParentFile().mkdirs();
             return;
@@ -91,7 +97,7 @@ public class AccountManager {
     }
     
     private void saveAccounts() {
-        File file = new File(DATA_FILE);
+        File file = new File(dataFile);
         file.getParentFile().mkdirs();
         
         try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) {
@@ -0,0 +1,63 @@
+package chess.ai;
+
+import chess.game.Board;
+import chess.game.PackedMove;
+import chess.pieces.Piece.PieceColor;
+import chess.pieces.Piece.PieceType;
+
+// A search's stack of network accumulators, one entry per ply for each perspective.
+// Making a move fills the next entry from the current one plus the two or three
+// inputs the move changes; taking it back just drops back to the previous entry.
+final class Accumulators {
+    private final NeuralNetwork network;
+    private final short[][] white;
+    private final short[][] black;
+    private int top;
+    
+    Accumulators(NeuralNetwork network, int plies) {
+        this.network = network;
+        this.white = new short[plies + 1][network.getHiddenSize()];
+        this.black = new short[plies + 1][network.getHiddenSize()];
+    }
+    
+    // Starts over from the search's root position
+    void reset(Board board) {
+        top = 0;
+        network.refresh(board, PieceColor.WHITE, white[0]);
+        network.refresh(board, PieceColor.BLACK, black[0]);
+    }
+    
+    // Call before the move is made on the board
+    void push(Board board, int move) {
+        PieceColor color = board.getSideToMove();
+        PieceColor opponent = color == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+        update(PieceColor.WHITE, white, color, opponent, move);
+        update(PieceColor.BLACK, black, color, opponent, move);
+        top++;
+    }
+    
+    void pop() {
+        top--;
+    }
+    
+    // Score for the side to move
+    int evaluate(PieceColor sideToMove) {
+        return sideToMove == PieceColor.WHITE ? network.evaluate(white[top], black[top])
+                                              : network.evaluate(black[top], white[top]);
+    }
+    
+    private void update(PieceColor perspective, short[][] stack, PieceColor color, PieceColor opponent, int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        PieceType piece = PackedMove.piece(move);
+        int removed = NeuralNetwork.feature(perspective, color, piece, from);
+        int added = NeuralNetwork.feature(perspective, color,
+                                          PackedMove.isPromotion(move) ? PieceType.QUEEN : piece, to);
+        if (PackedMove.isCapture(move)) {
+            int captured = NeuralNetwork.feature(perspective, opponent, PackedMove.captured(move), to);
+            network.capture(stack[top], stack[top + 1], removed, captured, added);
+        } else {
+            network.move(stack[top], stack[top + 1], removed, added);
+        }
+    }
+}
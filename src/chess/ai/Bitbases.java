@@ -0,0 +1,232 @@
+package chess.ai;
+
+import chess.game.Attacks;
+import chess.game.Bitboard;
+import chess.game.Board;
+import chess.pieces.Piece.PieceColor;
+import chess.pieces.Piece.PieceType;
+
+// Exact win/draw results for king and pawn, rook or queen against a bare king,
+// worked out by retrograde analysis on a background thread started by initialize().
+// Until that finishes probes of these endings return UNKNOWN, so no search ever
+// waits for the build.
+//
+// Each table holds one bit per position ("the stronger side wins"), indexed by side
+// to move, the two kings and the extra piece, with the stronger side always seen as
+// White: 2 * 64 * 64 * 64 bits = 64 KB per ending. The weaker side can never win
+// these, so one bit is enough. Tables are built in the holder's class initializer,
+// which the JVM runs once and publishes safely to every thread, and are only read
+// once ready is set.
+public final class Bitbases {
+    public static final int UNKNOWN = 0;
+    public static final int WIN = 1;
+    public static final int DRAW = 2;
+    public static final int LOSS = 3;
+    
+    private static final int POSITIONS = 2 * 64 * 64 * 64;
+    private static final int STRONG_TO_MOVE = 0;
+    private static final int WEAK_TO_MOVE = 1;
+    
+    // States while generating
+    private static final byte UNDECIDED = 0;
+    private static final byte WON = 1;
+    private static final byte NOT_WON = 2;
+    private static final byte ILLEGAL = 3;
+    
+    private static boolean started;
+    private static volatile boolean ready;
+    
+    // Built by the background thread; KPK needs KQK ready for its promotions
+    private static final class Tables {
+        static final long[] KQK = generate(PieceType.QUEEN, null);
+        static final long[] KRK = generate(PieceType.ROOK, null);
+        static final long[] KPK = generate(PieceType.PAWN, KQK);
+        
+        // Calling this is enough to make the JVM run the initializer above
+        static void load() {
+        }
+    }
+    
+    private Bitbases() {
+    }
+    
+    // Result for the side to move, or UNKNOWN if the position is not one of these
+    // endings. Bare kings count as a draw.
+    public static int probe(Board board) {
+        long occupied = board.getOccupied();
+        int pieces = Long.bitCount(occupied);
+        if (pieces == 2) return DRAW;
+        if (pieces != 3 || !ready) return UNKNOWN;
+        
+        PieceColor strong = Long.bitCount(board.getColorBitboard(PieceColor.WHITE)) == 2
+                          ? PieceColor.WHITE : PieceColor.BLACK;
+        PieceColor weak = strong == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+        long extra = board.getColorBitboard(strong) & ~board.getBitboard(strong, PieceType.KING);
+        
+        long[] table;
+        switch (board.getPiece(Bitboard.lsb(extra)).getType()) {
+            case QUEEN: table = Tables.KQK; break;
+            case ROOK: table = Tables.KRK; break;
+            case PAWN: table = Tables.KPK; break;
+            default: return DRAW; // a lone minor piece cannot mate
+        }
+        
+        // Mirror the board top to bottom when Black is the stronger side, so its
+        // pawn runs the same way as a White one
+        int flip = strong == PieceColor.WHITE ? 0 : 56;
+        int sideToMove = board.getSideToMove() == strong ? STRONG_TO_MOVE : WEAK_TO_MOVE;
+        int index = index(sideToMove, board.getKingSquare(strong) ^ flip,
+                          board.getKingSquare(weak) ^ flip, Bitboard.lsb(extra) ^ flip);
+        
+        boolean won = (table[index >>> 6] & (1L << index)) != 0L;
+        if (!won) return DRAW;
+        return sideToMove == STRONG_TO_MOVE ? WIN : LOSS;
+    }
+    
+    // Starts building the tables in the background; later calls do nothing
+    public static synchronized void initialize() {
+        if (started) return;
+        started = true;
+        Thread builder = new Thread(() -> {
+            Tables.load();
+            ready = true;
+        }, "bitbases");
+        builder.setDaemon(true);
+        builder.start();
+    }
+    
+    public static boolean isReady() {
+        return ready;
+    }
+    
+    private static int index(int sideToMove, int strongKing, int weakKing, int piece) {
+        return (sideToMove << 18) | (strongKing << 12) | (weakKing << 6) | piece;
+    }
+    
+    // Repeats passes over the undecided positions until nothing changes. A position
+    // with the stronger side to move is won if some move reaches a won position; one
+    // with the weaker side to move is won if it is mate or every move does. Whatever
+    // is still undecided at the end is a draw.
+    private static long[] generate(PieceType type, long[] promotionTable) {
+        byte[] states = new byte[POSITIONS];
+        for (int index = 0; index < POSITIONS; index++) {
+            states[index] = isLegal(type, index) ? UNDECIDED : ILLEGAL;
+        }
+        
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int index = 0; index < POSITIONS; index++) {
+                if (states[index] != UNDECIDED) continue;
+                byte result = (index >>> 18) == STRONG_TO_MOVE
+                            ? strongSideResult(type, index, states, promotionTable)
+                            : weakSideResult(type, index, states);
+                if (result != UNDECIDED) {
+                    states[index] = result;
+                    changed = true;
+                }
+            }
+        }
+        
+        long[] table = new long[POSITIONS / 64];
+        for (int index = 0; index < POSITIONS; index++) {
+            if (states[index] == WON) {
+                table[index >>> 6] |= 1L << index;
+            }
+        }
+        return table;
+    }
+    
+    private static boolean isLegal(PieceType type, int index) {
+        int strongKing = (index >>> 12) & 63;
+        int weakKing = (index >>> 6) & 63;
+        int piece = index & 63;
+        if (strongKing == weakKing || piece == strongKing || piece == weakKing) return false;
+        if ((Attacks.king(strongKing) & Bitboard.bit(weakKing)) != 0L) return false;
+        if (type == PieceType.PAWN && (Bitboard.row(piece) == 0 || Bitboard.row(piece) == 7)) return false;
+        
+        // The weaker king cannot be in check with the stronger side to move
+        long occupied = Bitboard.bit(strongKing) | Bitboard.bit(weakKing) | Bitboard.bit(piece);
+        return (index >>> 18) == WEAK_TO_MOVE || (attacks(type, piece, occupied) & Bitboard.bit(weakKing)) == 0L;
+    }
+    
+    private static byte strongSideResult(PieceType type, int index, byte[] states, long[] promotionTable) {
+        int strongKing = (index >>> 12) & 63;
+        int weakKing = (index >>> 6) & 63;
+        int piece = index & 63;
+        long occupied = Bitboard.bit(strongKing) | Bitboard.bit(weakKing) | Bitboard.bit(piece);
+        
+        long kingMoves = Attacks.king(strongKing) & ~Attacks.king(weakKing) & ~Bitboard.bit(piece);
+        while (kingMoves != 0L) {
+            int to = Bitboard.lsb(kingMoves);
+            if (states[index(WEAK_TO_MOVE, to, weakKing, piece)] == WON) return WON;
+            kingMoves &= kingMoves - 1;
+        }
+        
+        if (type == PieceType.PAWN) {
+            // White pawns move towards row 0
+            int oneForward = piece - 8;
+            if ((occupied & Bitboard.bit(oneForward)) == 0L) {
+                if (Bitboard.row(oneForward) == 0) {
+                    // Promotion: look the new queen up in the KQK table, unless the
+                    // weaker king can simply take it
+                    int promoted = index(WEAK_TO_MOVE, strongKing, weakKing, oneForward);
+                    if ((promotionTable[promoted >>> 6] & (1L << promoted)) != 0L) return WON;
+                } else {
+                    if (states[index(WEAK_TO_MOVE, strongKing, weakKing, oneForward)] == WON) return WON;
+                    int twoForward = oneForward - 8;
+                    if (Bitboard.row(piece) == 6 && (occupied & Bitboard.bit(twoForward)) == 0L
+                        && states[index(WEAK_TO_MOVE, strongKing, weakKing, twoForward)] == WON) {
+                        return WON;
+                    }
+                }
+            }
+            return UNDECIDED;
+        }
+        
+        long pieceMoves = attacks(type, piece, occupied) & ~Bitboard.bit(strongKing) & ~Bitboard.bit(weakKing);
+        while (pieceMoves != 0L) {
+            int to = Bitboard.lsb(pieceMoves);
+            if (states[index(WEAK_TO_MOVE, strongKing, weakKing, to)] == WON) return WON;
+            pieceMoves &= pieceMoves - 1;
+        }
+        return UNDECIDED;
+    }
+    
+    private static byte weakSideResult(PieceType type, int index, byte[] states) {
+        int strongKing = (index >>> 12) & 63;
+        int weakKing = (index >>> 6) & 63;
+        int piece = index & 63;
+        // The weaker king is lifted off the board so it cannot hide behind itself
+        long occupied = Bitboard.bit(strongKing) | Bitboard.bit(piece);
+        long attacked = attacks(type, piece, occupied) | Attacks.king(strongKing);
+        
+        boolean hasMove = false;
+        boolean allWon = true;
+        long kingMoves = Attacks.king(weakKing) & ~attacked;
+        while (kingMoves != 0L) {
+            int to = Bitboard.lsb(kingMoves);
+            kingMoves &= kingMoves - 1;
+            hasMove = true;
+            // Taking the undefended piece leaves bare kings
+            if (to == piece) return NOT_WON;
+            byte next = states[index(STRONG_TO_MOVE, strongKing, to, piece)];
+            if (next == NOT_WON) return NOT_WON;
+            if (next != WON) allWon = false;
+        }
+        
+        if (!hasMove) {
+            boolean inCheck = (attacked & Bitboard.bit(weakKing)) != 0L;
+            return inCheck ? WON : NOT_WON;
+        }
+        return allWon ? WON : UNDECIDED;
+    }
+    
+    private static long attacks(PieceType type, int square, long occupied) {
+        switch (type) {
+            case QUEEN: return Attacks.queen(square, occupied);
+            case ROOK: return Attacks.rook(square, occupied);
+            default: return Attacks.pawn(PieceColor.WHITE, square);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package chess.ai;
+
+import chess.game.Board;
+import chess.game.MoveGenerator;
+import chess.game.MoveList;
+import chess.game.PackedMove;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Builds an OpeningBook file from a text file of opening lines, one line per row
+// as moves in coordinate notation ("e2e4 e7e5 g1f3"); '#' starts a comment. A move's
+// weight is the number of lines that play it from that position.
+//
+//   java -cp bin chess.ai.BookBuilder <lines.txt> [book.bin] [max plies]
+public class BookBuilder {
+    private static final int DEFAULT_MAX_PLIES = 20;
+    
+    private final Map<Long, Map<Integer, Integer>> positions = new HashMap<>();
+    private final int maxPlies;
+    
+    public BookBuilder(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+    
+    // Adds every position of the line up to the ply limit
+    public void addLine(String line) {
+        Board board = new Board();
+        MoveList legal = new MoveList();
+        String[] moves = line.trim().split("\\s+");
+        for (int ply = 0; ply < moves.length && ply < maxPlies; ply++) {
+            String text = moves[ply];
+            if (text.isEmpty()) break;
+            
+            MoveGenerator.generateLegal(board, board.getSideToMove(), legal);
+            int move = PackedMove.NONE;
+            for (int i = 0; i < legal.size(); i++) {
+                if (PackedMove.toString(legal.get(i)).equals(text)) {
+                    move = legal.get(i);
+                }
+            }
+            if (move == PackedMove.NONE) {
+                throw new IllegalArgumentException("Illegal move " + text + " in line: " + line);
+            }
+            
+            positions.computeIfAbsent(board.hash(), k -> new HashMap<>())
+                     .merge(encode(move), 1, Integer::sum);
+            board.makeMove(move);
+        }
+    }
+    
+    public void write(String file) throws IOException {
+        List<Long> keys = new ArrayList<>(positions.keySet());
+        keys.sort(Long::compareUnsigned);
+        
+        File out = new File(file);
+        if (out.getParentFile() != null) {
+            out.getParentFile().mkdirs();
+        }
+        try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(out)))) {
+            for (long key : keys) {
+                List<Map.Entry<Integer, Integer>> moves = new ArrayList<>(positions.get(key).entrySet());
+                moves.sort((a, b) -> b.getValue() - a.getValue());
+                for (Map.Entry<Integer, Integer> move : moves) {
+                    stream.writeLong(key);
+                    stream.writeShort(move.getKey());
+                    stream.writeShort(Math.min(move.getValue(), 0xFFFF));
+                    stream.writeInt(0);
+                }
+            }
+        }
+    }
+    
+    public int getPositionCount() {
+        return positions.size();
+    }
+    
+    private static int encode(int move) {
+        int encoded = OpeningBook.toBookSquare(PackedMove.to(move))
+                    | (OpeningBook.toBookSquare(PackedMove.from(move)) << 6);
+        if (PackedMove.isPromotion(move)) {
+            encoded |= OpeningBook.PROMOTION_QUEEN << 12;
+        }
+        return encoded;
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: BookBuilder <lines.txt> [book.bin] [max plies]");
+            System.exit(1);
+        }
+        String output = args.length > 1 ? args[1] : OpeningBook.DEFAULT_FILE;
+        int maxPlies = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_PLIES;
+        
+        BookBuilder builder = new BookBuilder(maxPlies);
+        int lines = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(args[0]))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comment = line.indexOf('#');
+                if (comment >= 0) line = line.substring(0, comment);
+                if (line.trim().isEmpty()) continue;
+                builder.addLine(line);
+                lines++;
+            }
+        }
+        builder.write(output);
+        System.out.println("Wrote " + builder.getPositionCount() + " positions from " + lines + " lines to " + output);
+    }
+}
@@ -1,140 +1,333 @@
 package chess.ai;
 
 import chess.game.*;
-import chess.pieces.Piece;
 import chess.pieces.Piece.PieceColor;
 import java.util.List;
 import java.util.Random;
-import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ChessAI {
     private PieceColor aiColor;
-    private DifficultyLevel difficulty;
+    private Strength strength;
     private Random random;
+    private long noiseSeed;
+    // The table, pool and network are only replaced on the AI thread, between searches
+    private TranspositionTable table;
+    private volatile SearchPool searchPool;
+    private OpeningBook book;
+    private final MoveList bookMoves = new MoveList();
+    // Evaluates with this instead of the hand-written Evaluator when set
+    private NeuralNetwork network;
+    // Search of the position expected after the opponent's reply, run while they think
+    private boolean ponderEnabled;
+    private CompletableFuture<Search.Result> ponderSearch;
+    private AtomicLong ponderDeadline;
+    private long ponderKey;
+    // Jobs are numbered as they are queued. A stop ends every job queued so far,
+    // including ones still waiting behind a running search, but none queued later.
+    private final AtomicLong queuedJobs = new AtomicLong();
+    private volatile long stoppedJobs;
+    // Searches run here so callers such as the Swing event thread never block
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "chess-ai");
+        thread.setDaemon(true);
+        return thread;
+    });
     
+    private static final int DEFAULT_HASH_MB = 16;
+    
+    // Built once, off the AI thread, so no move waits for them
+    static {
+        Bitbases.initialize();
+    }
+    
+    // Each level is a search limited in nodes, depth and time, with evaluation noise
+    // making the weaker levels misjudge positions
     public enum DifficultyLevel {
-        EASY, MEDIUM, HARD
+        EASY(new Strength(1_000, 2, 150, 100)),
+        MEDIUM(new Strength(30_000, 4, 50, 300)),
+        HARD(new Strength(2_000_000, Search.MAX_PLY, 0, 1000, true));
+        
+        private final Strength strength;
+        
+        DifficultyLevel(Strength strength) {
+            this.strength = strength;
+        }
+        
+        public Strength getStrength() {
+            return strength;
+        }
     }
     
     public ChessAI(PieceColor aiColor, DifficultyLevel difficulty) {
+        this(aiColor, difficulty.getStrength(), new Random());
+    }
+    
+    // Seeded variant so benchmarks and tests see the same choices every run
+    public ChessAI(PieceColor aiColor, DifficultyLevel difficulty, long seed) {
+        this(aiColor, difficulty.getStrength(), new Random(seed));
+    }
+    
+    // Custom level between or beyond the presets
+    public ChessAI(PieceColor aiColor, Strength strength) {
+        this(aiColor, strength, new Random());
+    }
+    
+    private ChessAI(PieceColor aiColor, Strength strength, Random random) {
         this.aiColor = aiColor;
-        this.difficulty = difficulty;
-        this.random = new Random();
+        this.strength = strength;
+        this.random = random;
+        // Fixed for the AI's lifetime, so noisy scores in the hash table stay consistent
+        this.noiseSeed = random.nextLong();
+        this.table = new TranspositionTable(DEFAULT_HASH_MB);
+        this.searchPool = new SearchPool(table, 1);
+        this.book = OpeningBook.getDefault();
     }
     
-    public Move getBestMove(ChessGame game) {
-        switch (difficulty) {
-            case EASY:
-                return getRandomMove(game);
-            case MEDIUM:
-                return getMediumMove(game);
-            case HARD:
-                return getHardMove(game);
-            default:
-                return getRandomMove(game);
-        }
+    public PieceColor getColor() {
+        return aiColor;
     }
     
-    private Move getRandomMove(ChessGame game) {
-        List<Move> allMoves = getAllPossibleMoves(game);
-        if (allMoves.isEmpty()) return null;
-        return allMoves.get(random.nextInt(allMoves.size()));
+    public Strength getStrength() {
+        return strength;
     }
     
-    private Move getMediumMove(ChessGame game) {
-        List<Move> allMoves = getAllPossibleMoves(game);
-        if (allMoves.isEmpty()) return null;
-        
-        // 50% chance to make a good move, 50% random
-        if (random.nextBoolean()) {
-            return findCapturingMove(allMoves, game);
+    public void setStrength(Strength strength) {
+        this.strength = strength;
+    }
+    
+    // Book consulted before searching by strengths that use one; null turns the
+    // book off
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+    
+    // Network evaluation, e.g. NeuralNetwork.getDefault(); null goes back to the
+    // hand-written evaluation. Like the table and thread settings below, it is
+    // applied on the AI thread, so it waits for a running search to finish instead
+    // of changing things under it.
+    public void setNeuralNetwork(NeuralNetwork network) {
+        stopPondering();
+        searchExecutor.execute(() -> {
+            this.network = network;
+            searchPool.setNetwork(network);
+        });
+    }
+    
+    // Replaces the transposition table with an empty one of the given size
+    public void setHashSize(int megabytes) {
+        stopPondering();
+        searchExecutor.execute(() -> {
+            table = new TranspositionTable(megabytes);
+            replaceSearchPool(searchPool.getThreads());
+        });
+    }
+    
+    // Number of threads searching each move; 1 (the default) is a single
+    // deterministic search, more adds Lazy SMP helpers sharing the hash table
+    public void setThreads(int threads) {
+        stopPondering();
+        searchExecutor.execute(() -> replaceSearchPool(threads));
+    }
+    
+    // When on, the AI keeps searching after each move, assuming the opponent plays the
+    // reply its search expects. If they do, that search carries on as the AI's next
+    // one; if not, it is thrown away. The ponder search counts against the strength
+    // like the move it becomes: its nodes and time from its start are the move's,
+    // so a hit never gets more than one move's worth of work. A miss wastes up to
+    // one move's work, so the game only turns this on for the Hard level.
+    public void setPondering(boolean enabled) {
+        ponderEnabled = enabled;
+        if (!enabled) {
+            stopPondering();
         }
-        return allMoves.get(random.nextInt(allMoves.size()));
     }
     
-    private Move getHardMove(ChessGame game) {
-        List<Move> allMoves = getAllPossibleMoves(game);
-        if (allMoves.isEmpty()) return null;
-        
-        // Try to find best move using simple evaluation
-        Move bestMove = null;
-        int bestScore = Integer.MIN_VALUE;
-        
-        for (Move move : allMoves) {
-            int score = evaluateMove(move, game);
-            if (score > bestScore) {
-                bestScore = score;
-                bestMove = move;
-            }
+    public synchronized void stopPondering() {
+        if (ponderSearch != null) {
+            ponderSearch.cancel(false);
+            ponderSearch = null;
+            stopSearches();
         }
-        
-        return bestMove != null ? bestMove : allMoves.get(0);
     }
     
-    private List<Move> getAllPossibleMoves(ChessGame game) {
-        List<Move> allMoves = new ArrayList<>();
-        Board board = game.getBoard();
-        
-        for (Piece piece : board.getPieces(aiColor)) {
-            Position from = piece.getPosition();
-            List<Position> legalMoves = game.getLegalMovesForPiece(from);
-            
-            for (Position to : legalMoves) {
-                allMoves.add(new Move(from, to));
+    public Move getBestMove(ChessGame game) {
+        // Searches always run on the AI thread, so they never overlap a ponder search
+        return getBestMoveAsync(game).join();
+    }
+    
+    public CompletableFuture<Move> getBestMoveAsync(ChessGame game) {
+        return getBestMoveAsync(game, strength.getMaxMillis());
+    }
+    
+    // Budget taken from the AI's remaining clock time and increment
+    public CompletableFuture<Move> getBestMoveAsync(ChessGame game, long remainingMillis, long incrementMillis) {
+        return getBestMoveAsync(game, TimeManager.allocate(remainingMillis, incrementMillis));
+    }
+    
+    // Searches a snapshot of the game on the AI thread. The future completes with the
+    // best move found when the budget or the strength's limits run out, or when
+    // moveNow() is called; cancelling it stops the search and no move is delivered.
+    public CompletableFuture<Move> getBestMoveAsync(ChessGame game, long budgetMillis) {
+        CompletableFuture<Search.Result> search = resolvePonder(game, budgetMillis);
+        if (game.getLegalMoves().isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (search == null) {
+            Move bookMove = getBookMove(game);
+            if (bookMove != null) {
+                return CompletableFuture.completedFuture(bookMove);
             }
         }
         
-        return allMoves;
+        Board snapshot = game.getBoard().copy();
+        Strength limits = strength;
+        if (search == null) {
+            search = submitSearch(snapshot, budgetMillis, limits, new AtomicLong(Search.CLOCK_NOT_STARTED));
+        }
+        
+        CompletableFuture<Search.Result> running = search;
+        CompletableFuture<Move> future = new CompletableFuture<>();
+        running.whenComplete((result, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else if (!future.isDone()) {
+                if (ponderEnabled) {
+                    startPonder(snapshot, result, limits);
+                }
+                future.complete(PackedMove.toMove(result.getBestMove()));
+            }
+        });
+        future.whenComplete((move, error) -> {
+            if (future.isCancelled()) {
+                running.cancel(false);
+                stopSearches();
+            }
+        });
+        return future;
     }
     
-    private Move findCapturingMove(List<Move> moves, ChessGame game) {
-        Board board = game.getBoard();
-        
-        for (Move move : moves) {
-            Piece target = board.getPiece(move.getTo());
-            if (target != null && target.getColor() != aiColor) {
-                return move;
+    // Ends the running search early; its future completes with the best move so far
+    public void moveNow() {
+        stopSearches();
+    }
+    
+    // Empties the transposition table before the next search, e.g. for a new game
+    // that should not build on what was learned in the last one
+    public void clearHash() {
+        searchExecutor.execute(table::clear);
+    }
+    
+    // Stops any search and lets the AI's threads end; the AI can't search afterwards
+    public void shutdown() {
+        stopPondering();
+        stopSearches();
+        searchExecutor.execute(() -> searchPool.shutdown());
+        searchExecutor.shutdown();
+    }
+    
+    // Analysis of the game's position for an analysis board or game review: the best
+    // lineCount moves, best first, each with its score, depth, nodes and line. The
+    // AI's strength limits and evaluation noise do not apply. The listener, if not
+    // null, gets the lines of every completed depth as they come in, on the AI thread.
+    // moveNow() or cancelling the future ends the analysis early.
+    public CompletableFuture<List<Search.Result>> analyze(ChessGame game, int lineCount, long timeMillis,
+                                                          Search.Listener listener) {
+        stopPondering();
+        Board snapshot = game.getBoard().copy();
+        CompletableFuture<List<Search.Result>> future = new CompletableFuture<>();
+        long job = queuedJobs.incrementAndGet();
+        searchExecutor.execute(() -> {
+            if (future.isDone()) return;
+            try {
+                future.complete(startJob(job).analyze(snapshot, timeMillis, Search.MAX_PLY, lineCount, listener));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
             }
-        }
-        
-        return moves.get(random.nextInt(moves.size()));
+        });
+        future.whenComplete((lines, error) -> {
+            if (future.isCancelled()) {
+                stopSearches();
+            }
+        });
+        return future;
     }
     
-    private int evaluateMove(Move move, ChessGame game) {
-        Board board = game.getBoard();
-        int score = 0;
-        
-        // Capture value
-        Piece target = board.getPiece(move.getTo());
-        if (target != null) {
-            score += getPieceValue(target) * 10;
-        }
-        
-        // Center control
-        int row = move.getTo().getRow();
-        int col = move.getTo().getCol();
-        if (row >= 2 && row <= 5 && col >= 2 && col <= 5) {
-            score += 5;
+    // Only called on the AI thread, where no search is running
+    private void replaceSearchPool(int threads) {
+        searchPool.shutdown();
+        searchPool = new SearchPool(table, threads);
+        searchPool.setNetwork(network);
+    }
+    
+    private void stopSearches() {
+        stoppedJobs = queuedJobs.get();
+        searchPool.stop();
+    }
+    
+    // Called on the AI thread as a job starts: clears the stop flags left by earlier
+    // jobs, unless this job was itself stopped while it waited
+    private SearchPool startJob(long job) {
+        SearchPool pool = searchPool;
+        pool.clearStop();
+        if (job <= stoppedJobs) {
+            pool.stop();
         }
+        return pool;
+    }
+    
+    private CompletableFuture<Search.Result> submitSearch(Board position, long budgetMillis, Strength limits,
+                                                          AtomicLong deadline) {
+        CompletableFuture<Search.Result> future = new CompletableFuture<>();
+        long job = queuedJobs.incrementAndGet();
+        searchExecutor.execute(() -> {
+            // Cancelled before it got to run
+            if (future.isDone()) return;
+            try {
+                future.complete(startJob(job).search(position, budgetMillis, deadline, limits, noiseSeed));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+    
+    private synchronized void startPonder(Board searched, Search.Result result, Strength limits) {
+        int[] line = result.getPrincipalVariation();
+        if (line.length < 2) return;
         
-        // Development
-        Piece piece = board.getPiece(move.getFrom());
-        if (piece != null && !piece.hasMoved()) {
-            score += 3;
-        }
+        Board expected = searched.copy();
+        expected.makeMove(line[0]);
+        expected.makeMove(line[1]);
+        ponderKey = expected.hash();
+        ponderDeadline = new AtomicLong(Search.CLOCK_NOT_STARTED);
+        ponderSearch = submitSearch(expected, limits.getMaxMillis(), limits, ponderDeadline);
+    }
+    
+    // On a ponder hit returns the ponder search, now on the clock whether it is
+    // running or still waiting to start; on a miss stops it and returns null
+    private synchronized CompletableFuture<Search.Result> resolvePonder(ChessGame game, long budgetMillis) {
+        CompletableFuture<Search.Result> ponder = ponderSearch;
+        if (ponder == null) return null;
         
-        return score;
-    }
-    
-    private int getPieceValue(Piece piece) {
-        switch (piece.getType()) {
-            case PAWN: return 1;
-            case KNIGHT: return 3;
-            case BISHOP: return 3;
-            case ROOK: return 5;
-            case QUEEN: return 9;
-            case KING: return 100;
-            default: return 0;
+        if (game.getBoard().hash() == ponderKey && !ponder.isCompletedExceptionally()) {
+            ponderSearch = null;
+            long hit = Search.deadlineAfter(System.currentTimeMillis(), Math.min(budgetMillis, strength.getMaxMillis()));
+            // Not past the strength's cap counted from the ponder search's own start
+            ponderDeadline.accumulateAndGet(hit, (current, limit) ->
+                current == Search.CLOCK_NOT_STARTED ? limit : Math.min(current, limit));
+            return ponder;
         }
+        stopPondering();
+        return null;
+    }
+    
+    private Move getBookMove(ChessGame game) {
+        if (book == null || !strength.usesOpeningBook()) return null;
+        int move = book.probe(game.getBoard(), random, bookMoves);
+        return move == PackedMove.NONE ? null : PackedMove.toMove(move);
     }
 }
@@ -0,0 +1,39 @@
+package chess.ai;
+
+import java.util.Arrays;
+
+// Static evaluations by position hash, so positions reached again through
+// transpositions or re-searches are not evaluated twice. Fixed size and owned by
+// one search thread; a slot holds the last position stored in it.
+final class EvalCache {
+    // Returned by probe when the position is not stored; never a real evaluation
+    static final int MISS = Integer.MIN_VALUE;
+    
+    private final long[] keys;
+    private final int[] scores;
+    private final int mask;
+    
+    // entries must be a power of two
+    EvalCache(int entries) {
+        keys = new long[entries];
+        scores = new int[entries];
+        mask = entries - 1;
+        clear();
+    }
+    
+    int probe(long key) {
+        int slot = (int) key & mask;
+        return keys[slot] == key ? scores[slot] : MISS;
+    }
+    
+    void store(long key, int score) {
+        int slot = (int) key & mask;
+        keys[slot] = key;
+        scores[slot] = score;
+    }
+    
+    void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(scores, MISS);
+    }
+}
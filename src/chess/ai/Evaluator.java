@@ -0,0 +1,116 @@
+package chess.ai;
+
+import chess.game.Board;
+import chess.game.Bitboard;
+import chess.game.PieceSquareTables;
+import chess.pieces.Piece.PieceColor;
+import chess.pieces.Piece.PieceType;
+
+// Static evaluation in centipawns from the point of view of the side to move.
+// Material and piece-square totals come ready-made from the board; together with
+// the pawn structure they are blended between middlegame and endgame values by
+// how much material is left.
+public final class Evaluator {
+    // Plain piece values for exchange and move ordering decisions, indexed by
+    // PieceType ordinal: KING, QUEEN, ROOK, BISHOP, KNIGHT, PAWN
+    static final int[] PIECE_VALUES = {0, 900, 500, 330, 320, 100};
+    
+    // Pawn structure terms, middlegame and endgame. Passed pawn bonuses are indexed
+    // by how many ranks the pawn has advanced from its starting rank.
+    private static final int DOUBLED_MIDDLEGAME = -10;
+    private static final int DOUBLED_ENDGAME = -25;
+    private static final int ISOLATED_MIDDLEGAME = -10;
+    private static final int ISOLATED_ENDGAME = -15;
+    private static final int[] PASSED_MIDDLEGAME = {0, 5, 10, 20, 35, 60};
+    private static final int[] PASSED_ENDGAME = {0, 10, 20, 40, 70, 120};
+    
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    // Squares on the rows a pawn of each color still has to cross, by square
+    private static final long[][] AHEAD = new long[2][64];
+    
+    static {
+        for (int col = 0; col < 8; col++) {
+            FILES[col] = FILE_A << col;
+            ADJACENT_FILES[col] = (col > 0 ? FILE_A << (col - 1) : 0L) | (col < 7 ? FILE_A << (col + 1) : 0L);
+        }
+        for (int square = 0; square < 64; square++) {
+            int row = Bitboard.row(square);
+            // White pawns move towards row 0
+            AHEAD[PieceColor.WHITE.ordinal()][square] = (1L << (row * 8)) - 1;
+            AHEAD[PieceColor.BLACK.ordinal()][square] = row == 7 ? 0L : -1L << ((row + 1) * 8);
+        }
+    }
+    
+    private Evaluator() {
+    }
+    
+    public static int evaluate(Board board) {
+        return evaluate(board, null);
+    }
+    
+    // Looks the pawn structure up in the table instead of working it out, if given one
+    static int evaluate(Board board, PawnTable pawns) {
+        long pawnScores = pawns != null ? pawns.probe(board) : pawnStructure(board);
+        int middlegame = board.getMiddlegameScore(PieceColor.WHITE) - board.getMiddlegameScore(PieceColor.BLACK)
+                       + PawnTable.middlegame(pawnScores);
+        int endgame = board.getEndgameScore(PieceColor.WHITE) - board.getEndgameScore(PieceColor.BLACK)
+                    + PawnTable.endgame(pawnScores);
+        // Early promotions can push the phase past its starting value
+        int phase = Math.min(board.getPhase(), PieceSquareTables.MAX_PHASE);
+        int score = (middlegame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+        score += mopUp(board, PieceColor.WHITE, PieceColor.BLACK) - mopUp(board, PieceColor.BLACK, PieceColor.WHITE);
+        return board.getSideToMove() == PieceColor.WHITE ? score : -score;
+    }
+    
+    // Doubled, isolated and passed pawns for White minus Black, packed by PawnTable.pack
+    static long pawnStructure(Board board) {
+        int middlegame = 0;
+        int endgame = 0;
+        for (PieceColor color : PieceColor.values()) {
+            PieceColor opponent = color == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+            long own = board.getBitboard(color, PieceType.PAWN);
+            long enemy = board.getBitboard(opponent, PieceType.PAWN);
+            int sign = color == PieceColor.WHITE ? 1 : -1;
+            
+            long pawns = own;
+            while (pawns != 0L) {
+                int square = Bitboard.lsb(pawns);
+                pawns &= pawns - 1;
+                int col = Bitboard.col(square);
+                long ahead = AHEAD[color.ordinal()][square];
+                
+                // Only the rearmost of a file's pawns counts as doubled
+                if ((own & FILES[col] & ahead) != 0L) {
+                    middlegame += sign * DOUBLED_MIDDLEGAME;
+                    endgame += sign * DOUBLED_ENDGAME;
+                } else if ((enemy & (FILES[col] | ADJACENT_FILES[col]) & ahead) == 0L) {
+                    int advanced = color == PieceColor.WHITE ? 6 - Bitboard.row(square) : Bitboard.row(square) - 1;
+                    middlegame += sign * PASSED_MIDDLEGAME[advanced];
+                    endgame += sign * PASSED_ENDGAME[advanced];
+                }
+                if ((own & ADJACENT_FILES[col]) == 0L) {
+                    middlegame += sign * ISOLATED_MIDDLEGAME;
+                    endgame += sign * ISOLATED_ENDGAME;
+                }
+            }
+        }
+        return PawnTable.pack(middlegame, endgame);
+    }
+    
+    // Against a bare king, reward driving it to the edge and bringing our own king
+    // closer, so the search makes progress towards mate instead of shuffling
+    private static int mopUp(Board board, PieceColor strong, PieceColor weak) {
+        if (Long.bitCount(board.getColorBitboard(weak)) != 1 || Long.bitCount(board.getColorBitboard(strong)) == 1) {
+            return 0;
+        }
+        int weakKing = board.getKingSquare(weak);
+        int strongKing = board.getKingSquare(strong);
+        int row = Bitboard.row(weakKing);
+        int col = Bitboard.col(weakKing);
+        int centerDistance = Math.max(3 - row, row - 4) + Math.max(3 - col, col - 4);
+        int kingDistance = Math.abs(row - Bitboard.row(strongKing)) + Math.abs(col - Bitboard.col(strongKing));
+        return 10 * centerDistance + 4 * (14 - kingDistance);
+    }
+}
@@ -0,0 +1,118 @@
+package chess.ai;
+
+import chess.game.Board;
+import chess.game.MoveList;
+import chess.game.PackedMove;
+import chess.pieces.Piece.PieceColor;
+import chess.pieces.Piece.PieceType;
+
+// Scores moves so that the ones most likely to cause a cutoff are searched first:
+// hash move, then winning captures by MVV-LVA, then killers, then captures that
+// lose material by static exchange, then quiet moves by history.
+// Each Search owns one, so none of this needs to be thread safe.
+class MoveOrdering {
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 24;
+    private static final int KILLER_SCORE = 1 << 22;
+    // History scores are kept below the losing captures by halving the table when it gets close
+    private static final int HISTORY_LIMIT = KILLER_SCORE >> 1;
+    private static final int LOSING_CAPTURE_SCORE = HISTORY_LIMIT;
+    
+    // Two quiet moves per ply that recently caused a cutoff at that ply
+    private final int[][] killers = new int[Search.MAX_PLY + 1][2];
+    // Indexed by side, from square and to square
+    private final int[][][] history = new int[2][64][64];
+    private final int[][] scores = new int[Search.MAX_PLY + 1][MoveList.CAPACITY];
+    
+    // Killers belong to one position's tree; history carries over at reduced weight
+    void newSearch() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = PackedMove.NONE;
+            plyKillers[1] = PackedMove.NONE;
+        }
+        ageHistory();
+    }
+    
+    // pvMove is the previous iteration's move at this ply, tried even before the hash move
+    void score(Board board, MoveList moves, int ply, int pvMove, int hashMove, PieceColor side) {
+        int[] plyScores = scores[ply];
+        int[][] sideHistory = history[side.ordinal()];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (move == pvMove) {
+                plyScores[i] = HASH_MOVE_SCORE + 1;
+            } else if (move == hashMove) {
+                plyScores[i] = HASH_MOVE_SCORE;
+            } else if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) {
+                plyScores[i] = (StaticExchange.atLeast(board, move, 0) ? CAPTURE_SCORE : LOSING_CAPTURE_SCORE)
+                             + mvvLva(move);
+            } else if (move == killers[ply][0]) {
+                plyScores[i] = KILLER_SCORE + 1;
+            } else if (move == killers[ply][1]) {
+                plyScores[i] = KILLER_SCORE;
+            } else {
+                plyScores[i] = sideHistory[PackedMove.from(move)][PackedMove.to(move)];
+            }
+        }
+    }
+    
+    // Partial selection sort: moves the best remaining move to index, so a node
+    // that cuts off early never pays for sorting the rest of the list
+    int next(MoveList moves, int ply, int index) {
+        int[] plyScores = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (plyScores[i] > plyScores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            moves.swap(index, best);
+            int tmp = plyScores[index];
+            plyScores[index] = plyScores[best];
+            plyScores[best] = tmp;
+        }
+        return moves.get(index);
+    }
+    
+    boolean isKiller(int move, int ply) {
+        return move == killers[ply][0] || move == killers[ply][1];
+    }
+    
+    // Called when a quiet move fails high
+    void recordCutoff(int move, int ply, int depth, PieceColor side) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        
+        int[] fromHistory = history[side.ordinal()][PackedMove.from(move)];
+        int to = PackedMove.to(move);
+        fromHistory[to] += depth * depth;
+        if (fromHistory[to] >= HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+    
+    private void ageHistory() {
+        for (int[][] sideHistory : history) {
+            for (int[] fromHistory : sideHistory) {
+                for (int to = 0; to < fromHistory.length; to++) {
+                    fromHistory[to] >>= 1;
+                }
+            }
+        }
+    }
+    
+    // Most valuable victim first, least valuable attacker breaking ties; a promotion
+    // counts as winning the difference between a queen and a pawn
+    private static int mvvLva(int move) {
+        int victim = PackedMove.isCapture(move)
+                   ? Evaluator.PIECE_VALUES[PackedMove.captured(move).ordinal()] : 0;
+        if (PackedMove.isPromotion(move)) {
+            victim += Evaluator.PIECE_VALUES[PieceType.QUEEN.ordinal()]
+                    - Evaluator.PIECE_VALUES[PieceType.PAWN.ordinal()];
+        }
+        return victim * 16 - Evaluator.PIECE_VALUES[PackedMove.piece(move).ordinal()] / 100;
+    }
+}
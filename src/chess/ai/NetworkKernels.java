@@ -0,0 +1,32 @@
+package chess.ai;
+
+// The arithmetic inner loops of NeuralNetwork. Offsets and sizes count shorts.
+interface NetworkKernels {
+    // accumulator += weights[offset ..]
+    void add(short[] accumulator, short[] weights, int offset, int size);
+    
+    // child = parent - weights[removed ..] + weights[added ..]
+    void move(short[] parent, short[] child, short[] weights, int removed, int added, int size);
+    
+    // child = parent - weights[removed ..] - weights[captured ..] + weights[added ..]
+    void capture(short[] parent, short[] child, short[] weights, int removed, int captured, int added, int size);
+    
+    // Sum of each accumulator value, clipped to 0..limit, times its weight
+    long dot(short[] accumulator, short[] weights, int offset, int size, int limit);
+    
+    boolean isVectorized();
+    
+    // The Vector API version when the JVM runs with --add-modules jdk.incubator.vector,
+    // plain loops otherwise. VectorKernels is only loaded by name, so nothing touches
+    // the incubator classes when the module is absent.
+    static NetworkKernels best() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (NetworkKernels) Class.forName("chess.ai.VectorKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.err.println("Vector API unavailable, using scalar network code: " + e);
+            }
+        }
+        return new ScalarKernels();
+    }
+}
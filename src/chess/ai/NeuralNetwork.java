@@ -0,0 +1,205 @@
+package chess.ai;
+
+import chess.game.Bitboard;
+import chess.game.Board;
+import chess.game.PieceSquareTables;
+import chess.pieces.Piece.PieceColor;
+import chess.pieces.Piece.PieceType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Efficiently updatable neural network evaluation: 768 piece-square inputs per
+// perspective, one hidden layer shared by both perspectives and a single output.
+// The hidden layer's inputs (the accumulator) only change by a few weight rows per
+// move, so the search keeps them up to date instead of recomputing them; see
+// Accumulators.
+//
+// Weights are 16-bit integers. Hidden values are clipped to 0..ACTIVATION_LIMIT
+// and the output is scaled to centipawns by OUTPUT_SCALE / (ACTIVATION_LIMIT * WEIGHT_SCALE).
+// The loops run on the Vector API when the JVM is started with
+// --add-modules jdk.incubator.vector and as plain array loops otherwise; see
+// NetworkKernels. The output is summed in a long and clamped below the search's
+// win scores, so large loaded networks can't overflow it.
+//
+// File layout, big-endian as written by DataOutputStream:
+//   int   magic ("NNUE")
+//   int   hidden size
+//   short input weights [768][hidden size]
+//   short hidden biases [hidden size]
+//   short output weights [2][hidden size], side to move first
+//   int   output bias
+public final class NeuralNetwork {
+    public static final String DEFAULT_FILE = "data/network.nnue";
+    
+    static final int INPUTS = 768;
+    private static final int MAGIC = 0x4E4E5545;
+    private static final int ACTIVATION_LIMIT = 255;
+    private static final int WEIGHT_SCALE = 64;
+    private static final int OUTPUT_SCALE = 400;
+    
+    private static NeuralNetwork defaultNetwork;
+    
+    private final int hiddenSize;
+    private final short[] inputWeights;
+    private final short[] hiddenBiases;
+    private final short[] outputWeights;
+    private final int outputBias;
+    private final NetworkKernels kernels;
+    
+    private NeuralNetwork(int hiddenSize, short[] inputWeights, short[] hiddenBiases,
+                          short[] outputWeights, int outputBias) {
+        this(hiddenSize, inputWeights, hiddenBiases, outputWeights, outputBias, NetworkKernels.best());
+    }
+    
+    private NeuralNetwork(int hiddenSize, short[] inputWeights, short[] hiddenBiases,
+                          short[] outputWeights, int outputBias, NetworkKernels kernels) {
+        this.hiddenSize = hiddenSize;
+        this.inputWeights = inputWeights;
+        this.hiddenBiases = hiddenBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+        this.kernels = kernels;
+    }
+    
+    public static NeuralNetwork load(String file) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(Paths.get(file)));
+        if (data.remaining() < 8 || data.getInt() != MAGIC) {
+            throw new IOException("Not a network file: " + file);
+        }
+        int hiddenSize = data.getInt();
+        long expected = 2L * ((long) INPUTS * hiddenSize + 3L * hiddenSize) + 4;
+        if (hiddenSize < 1 || data.remaining() != expected) {
+            throw new IOException("Truncated or corrupt network file: " + file);
+        }
+        
+        short[] inputWeights = new short[INPUTS * hiddenSize];
+        short[] hiddenBiases = new short[hiddenSize];
+        short[] outputWeights = new short[2 * hiddenSize];
+        data.asShortBuffer().get(inputWeights);
+        data.position(data.position() + 2 * inputWeights.length);
+        data.asShortBuffer().get(hiddenBiases);
+        data.position(data.position() + 2 * hiddenBiases.length);
+        data.asShortBuffer().get(outputWeights);
+        data.position(data.position() + 2 * outputWeights.length);
+        return new NeuralNetwork(hiddenSize, inputWeights, hiddenBiases, outputWeights, data.getInt());
+    }
+    
+    // The network in DEFAULT_FILE, loaded once and shared by every AI, or the
+    // built-in one if there is no such file
+    public static synchronized NeuralNetwork getDefault() {
+        if (defaultNetwork == null) {
+            Path path = Paths.get(DEFAULT_FILE);
+            if (Files.exists(path)) {
+                try {
+                    defaultNetwork = load(DEFAULT_FILE);
+                } catch (IOException e) {
+                    System.err.println("Error loading network: " + e.getMessage());
+                }
+            }
+            if (defaultNetwork == null) {
+                defaultNetwork = builtIn();
+            }
+        }
+        return defaultNetwork;
+    }
+    
+    // A small hand-made network so the evaluator works without a weights file. Each
+    // hidden unit adds up material and piece-square values (the middlegame or the
+    // endgame half) for one group of the perspective's own pieces, in steps of
+    // 8 centipawns; the output takes both halves at equal weight. It knows nothing
+    // the piece-square tables don't, so trained weights are needed to gain strength.
+    static NeuralNetwork builtIn() {
+        PieceType[][] groups = {
+            {PieceType.PAWN}, {PieceType.KNIGHT, PieceType.BISHOP, PieceType.KING}, {PieceType.ROOK}, {PieceType.QUEEN}
+        };
+        int hiddenSize = 2 * groups.length;
+        int step = 8;
+        short bias = 16;
+        
+        short[] inputWeights = new short[INPUTS * hiddenSize];
+        short[] hiddenBiases = new short[hiddenSize];
+        short[] outputWeights = new short[2 * hiddenSize];
+        // Undoes the output scaling, giving half of each unit's value times the step
+        short outputWeight = (short) Math.round(step / 2.0 * ACTIVATION_LIMIT * WEIGHT_SCALE / OUTPUT_SCALE);
+        for (int group = 0; group < groups.length; group++) {
+            for (int half = 0; half < 2; half++) {
+                int unit = 2 * group + half;
+                hiddenBiases[unit] = bias;
+                outputWeights[unit] = outputWeight;
+                outputWeights[hiddenSize + unit] = (short) -outputWeight;
+                for (PieceType type : groups[group]) {
+                    // Seen from White, whose pieces are the perspective's own
+                    int index = Bitboard.pieceIndex(PieceColor.WHITE, type);
+                    for (int square = 0; square < 64; square++) {
+                        int value = half == 0 ? PieceSquareTables.middlegame(index, square)
+                                              : PieceSquareTables.endgame(index, square);
+                        int feature = feature(PieceColor.WHITE, PieceColor.WHITE, type, square);
+                        inputWeights[feature * hiddenSize + unit] = (short) Math.round(value / (double) step);
+                    }
+                }
+            }
+        }
+        return new NeuralNetwork(hiddenSize, inputWeights, hiddenBiases, outputWeights, 0);
+    }
+    
+    // The same weights, always run through the plain loops
+    public NeuralNetwork withScalarKernels() {
+        return new NeuralNetwork(hiddenSize, inputWeights, hiddenBiases, outputWeights, outputBias,
+                                 new ScalarKernels());
+    }
+    
+    public boolean isVectorized() {
+        return kernels.isVectorized();
+    }
+    
+    public int getHiddenSize() {
+        return hiddenSize;
+    }
+    
+    // Input index of a piece as seen by one side: the board is flipped for Black, so
+    // both perspectives see their own pieces from the bottom
+    static int feature(PieceColor perspective, PieceColor color, PieceType type, int square) {
+        int relative = perspective == PieceColor.WHITE ? square : square ^ 56;
+        int side = color == perspective ? 0 : 6;
+        return ((side + type.ordinal()) << 6) | relative;
+    }
+    
+    // Rebuilds a perspective's accumulator from scratch
+    void refresh(Board board, PieceColor perspective, short[] accumulator) {
+        System.arraycopy(hiddenBiases, 0, accumulator, 0, hiddenSize);
+        for (PieceColor color : PieceColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                long pieces = board.getBitboard(color, type);
+                while (pieces != 0L) {
+                    int offset = feature(perspective, color, type, Bitboard.lsb(pieces)) * hiddenSize;
+                    kernels.add(accumulator, inputWeights, offset, hiddenSize);
+                    pieces &= pieces - 1;
+                }
+            }
+        }
+    }
+    
+    // child = parent - removed + added
+    void move(short[] parent, short[] child, int removed, int added) {
+        kernels.move(parent, child, inputWeights, removed * hiddenSize, added * hiddenSize, hiddenSize);
+    }
+    
+    // child = parent - removed - captured + added
+    void capture(short[] parent, short[] child, int removed, int captured, int added) {
+        kernels.capture(parent, child, inputWeights,
+                        removed * hiddenSize, captured * hiddenSize, added * hiddenSize, hiddenSize);
+    }
+    
+    // Score in centipawns for the side whose accumulator is us, kept inside the
+    // search's win bounds
+    int evaluate(short[] us, short[] them) {
+        long sum = kernels.dot(us, outputWeights, 0, hiddenSize, ACTIVATION_LIMIT)
+                   + kernels.dot(them, outputWeights, hiddenSize, hiddenSize, ACTIVATION_LIMIT)
+                   + outputBias;
+        long score = sum * OUTPUT_SCALE / (ACTIVATION_LIMIT * WEIGHT_SCALE);
+        return (int) Math.max(-(Search.KNOWN_WIN - 1), Math.min(score, Search.KNOWN_WIN - 1));
+    }
+}
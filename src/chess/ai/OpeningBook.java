@@ -0,0 +1,142 @@
+package chess.ai;
+
+import chess.game.Bitboard;
+import chess.game.Board;
+import chess.game.MoveGenerator;
+import chess.game.MoveList;
+import chess.game.PackedMove;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+// Opening book in this engine's own format, written by BookBuilder. Entries are
+// 16 bytes, big-endian, sorted by key as an unsigned number:
+//   long  key, the position's Board.hash()
+//   short move: to square in bits 0-5, from square in bits 6-11, counted from a1
+//         rank by rank, and 4 in bits 12-14 for a promotion
+//   short weight
+//   int   unused, written as 0
+// The file is memory-mapped, so it takes no heap and opening it costs nothing up
+// front; lookups are a binary search. Books made by other engines won't work here,
+// since their keys come from different hash numbers.
+public final class OpeningBook {
+    public static final String DEFAULT_FILE = "data/book.bin";
+    
+    static final int ENTRY_SIZE = 16;
+    // The move's promotion field; this game only ever promotes to a queen
+    static final int PROMOTION_QUEEN = 4;
+    
+    private static OpeningBook defaultBook;
+    private static boolean defaultBookLoaded;
+    
+    private final ByteBuffer entries;
+    private final int size;
+    
+    private OpeningBook(ByteBuffer entries) {
+        this.entries = entries;
+        this.size = entries.capacity() / ENTRY_SIZE;
+    }
+    
+    public static OpeningBook open(String file) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+    
+    // The book in DEFAULT_FILE, mapped once and shared by every AI; null if there is none
+    public static synchronized OpeningBook getDefault() {
+        if (!defaultBookLoaded) {
+            defaultBookLoaded = true;
+            Path path = Paths.get(DEFAULT_FILE);
+            if (Files.exists(path)) {
+                try {
+                    defaultBook = open(DEFAULT_FILE);
+                } catch (IOException e) {
+                    System.err.println("Error loading opening book: " + e.getMessage());
+                }
+            }
+        }
+        return defaultBook;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    // Picks one of the book moves for the position with probability proportional
+    // to its weight, or returns PackedMove.NONE when the position is not in the book.
+    // The legal moves are generated into the caller's buffer.
+    public int probe(Board board, Random random, MoveList legal) {
+        long key = board.hash();
+        int first = firstEntry(key);
+        if (first == size) return PackedMove.NONE;
+        
+        MoveGenerator.generateLegal(board, board.getSideToMove(), legal);
+        
+        int totalWeight = 0;
+        for (int i = first; i < size && key(i) == key; i++) {
+            if (legalMove(legal, i) != PackedMove.NONE) {
+                totalWeight += weight(i);
+            }
+        }
+        if (totalWeight == 0) return PackedMove.NONE;
+        
+        int pick = random.nextInt(totalWeight);
+        for (int i = first; i < size && key(i) == key; i++) {
+            int move = legalMove(legal, i);
+            if (move == PackedMove.NONE) continue;
+            pick -= weight(i);
+            if (pick < 0) return move;
+        }
+        return PackedMove.NONE;
+    }
+    
+    // Index of the first entry with the key, or size if there is none
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(key(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < size && key(low) == key ? low : size;
+    }
+    
+    private long key(int index) {
+        return entries.getLong(index * ENTRY_SIZE);
+    }
+    
+    private int weight(int index) {
+        return entries.getShort(index * ENTRY_SIZE + 10) & 0xFFFF;
+    }
+    
+    // The entry's move if it is legal here, so a corrupt or mismatched book can
+    // never make the AI play an illegal move
+    private int legalMove(MoveList legal, int index) {
+        int move = entries.getShort(index * ENTRY_SIZE + 8) & 0xFFFF;
+        int promotion = (move >>> 12) & 7;
+        if (promotion != 0 && promotion != PROMOTION_QUEEN) return PackedMove.NONE;
+        return legal.find(fromBookSquare(move >>> 6), fromBookSquare(move));
+    }
+    
+    // Book squares count from a1 with ranks going up; this board counts from a8
+    private static int fromBookSquare(int square) {
+        int file = square & 7;
+        int rank = (square >>> 3) & 7;
+        return Bitboard.square(7 - rank, file);
+    }
+    
+    static int toBookSquare(int square) {
+        return (7 - Bitboard.row(square)) * 8 + Bitboard.col(square);
+    }
+}
@@ -0,0 +1,43 @@
+package chess.ai;
+
+import chess.game.Board;
+
+// Pawn structure scores by pawn hash. Pawns move rarely compared to other pieces,
+// so most positions in a search share their pawn structure with many others and
+// it is only worked out once per structure. Fixed size and owned by one search
+// thread, so it needs no locking; a slot simply holds the last structure stored
+// in it. Slots start out as key 0 with score 0, which is right for no pawns at all.
+final class PawnTable {
+    private final long[] keys;
+    private final long[] scores;
+    private final int mask;
+    
+    // entries must be a power of two
+    PawnTable(int entries) {
+        keys = new long[entries];
+        scores = new long[entries];
+        mask = entries - 1;
+    }
+    
+    long probe(Board board) {
+        long key = board.pawnHash();
+        int slot = (int) key & mask;
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            scores[slot] = Evaluator.pawnStructure(board);
+        }
+        return scores[slot];
+    }
+    
+    static long pack(int middlegame, int endgame) {
+        return ((long) middlegame << 32) | (endgame & 0xFFFFFFFFL);
+    }
+    
+    static int middlegame(long scores) {
+        return (int) (scores >> 32);
+    }
+    
+    static int endgame(long scores) {
+        return (int) scores;
+    }
+}
@@ -0,0 +1,39 @@
+package chess.ai;
+
+// Plain loops, used when the Vector API module is not available
+final class ScalarKernels implements NetworkKernels {
+    @Override
+    public void add(short[] accumulator, short[] weights, int offset, int size) {
+        for (int i = 0; i < size; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+    
+    @Override
+    public void move(short[] parent, short[] child, short[] weights, int removed, int added, int size) {
+        for (int i = 0; i < size; i++) {
+            child[i] = (short) (parent[i] - weights[removed + i] + weights[added + i]);
+        }
+    }
+    
+    @Override
+    public void capture(short[] parent, short[] child, short[] weights, int removed, int captured, int added, int size) {
+        for (int i = 0; i < size; i++) {
+            child[i] = (short) (parent[i] - weights[removed + i] - weights[captured + i] + weights[added + i]);
+        }
+    }
+    
+    @Override
+    public long dot(short[] accumulator, short[] weights, int offset, int size, int limit) {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += Math.max(0, Math.min(accumulator[i], limit)) * weights[offset + i];
+        }
+        return sum;
+    }
+    
+    @Override
+    public boolean isVectorized() {
+        return false;
+    }
+}
@@ -0,0 +1,625 @@
+package chess.ai;
+
+import chess.game.Board;
+import chess.game.MoveGenerator;
+import chess.game.MoveList;
+import chess.game.PackedMove;
+import chess.pieces.Piece.PieceColor;
+import chess.pieces.Piece.PieceType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Negamax alpha-beta search with iterative deepening. Works on its own copy of the
+// board with make/unmake, so the game being played is never touched.
+public class Search {
+    public static final int MAX_PLY = 64;
+    public static final int INFINITY = 32000;
+    public static final int MATE = 30000;
+    
+    // Scores above this are "mate in N"
+    static final int MATE_BOUND = MATE - MAX_PLY;
+    // Score of a position the bitbases say is won, short of an actual mate
+    static final int KNOWN_WIN = 20000;
+    // A deadline not set yet; the search sets it from its time limit when it starts
+    static final long CLOCK_NOT_STARTED = 0L;
+    // How often (in nodes) the clock is looked at
+    private static final int TIME_CHECK_INTERVAL = 2048;
+    // Slack for positional gains when deciding a capture cannot possibly raise alpha
+    private static final int DELTA_MARGIN = 200;
+    // How far below alpha a frontier node's evaluation must be to skip its quiet
+    // moves, indexed by remaining depth
+    private static final int[] FUTILITY_MARGINS = {0, 150, 300};
+    // Null-move cutoffs this deep are confirmed by a search without the null move
+    private static final int NULL_MOVE_VERIFICATION_DEPTH = 6;
+    // Moves searched at full depth before late move reductions start
+    private static final int LMR_FULL_DEPTH_MOVES = 3;
+    private static final int ASPIRATION_WINDOW = 40;
+    // Per thread: 256 KB of pawn structures and 768 KB of evaluations
+    private static final int PAWN_TABLE_ENTRIES = 1 << 14;
+    private static final int EVAL_CACHE_ENTRIES = 1 << 16;
+    
+    // Selective search techniques, each of which can be turned off to measure it
+    public enum Feature {
+        NULL_MOVE, LATE_MOVE_REDUCTIONS, FUTILITY, ASPIRATION_WINDOWS
+    }
+    
+    private final MoveList[] moveLists = new MoveList[MAX_PLY + 1];
+    // Triangular principal variation table: pv[ply] holds the best line from ply onwards
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    // Root moves left out of the search, the ones already reported in multi-PV analysis
+    private final int[] excludedRootMoves = new int[MoveList.CAPACITY];
+    private int excludedCount;
+    // Best line of the last completed iteration, searched first in the next one
+    private int[] previousPv = new int[0];
+    
+    private final TranspositionTable table;
+    private final MoveOrdering ordering = new MoveOrdering();
+    private final EnumSet<Feature> features = EnumSet.allOf(Feature.class);
+    // Set when evaluating with a neural network instead of the Evaluator
+    private Accumulators accumulators;
+    private final PawnTable pawnTable = new PawnTable(PAWN_TABLE_ENTRIES);
+    private final EvalCache evalCache = new EvalCache(EVAL_CACHE_ENTRIES);
+    private Board board;
+    private long nodes;
+    private long nodeLimit;
+    private int evalNoise;
+    private long noiseSeed;
+    // Limits only stop the search once it has a move to return
+    private boolean haveResult;
+    // The root's bitbase result, or UNKNOWN. In a won or lost bitbase ending the
+    // bitbases pick the root moves that keep the result, and below the root only
+    // probes that change it end a line; the search itself finds the way to mate.
+    private int rootBitbase;
+    // Shared with the other threads of the same search, and moved by a ponder hit
+    private AtomicLong deadline;
+    private boolean stopped;
+    // Set from another thread to end the search at the next clock check. Nothing in
+    // here clears it: whoever queues a search does, so a stop sent while the search
+    // waits to start still ends it.
+    private volatile boolean stopRequested;
+    
+    public static class Result {
+        private final int bestMove;
+        private final int score;
+        private final int depth;
+        private final long nodes;
+        private final long millis;
+        private final int[] principalVariation;
+        
+        Result(int bestMove, int score, int depth, long nodes, long millis, int[] principalVariation) {
+            this.bestMove = bestMove;
+            this.score = score;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.millis = millis;
+            this.principalVariation = principalVariation;
+        }
+        
+        public int getBestMove() { return bestMove; }
+        public int getScore() { return score; }
+        public int getDepth() { return depth; }
+        public long getNodes() { return nodes; }
+        public long getMillis() { return millis; }
+        public long getNodesPerSecond() { return nodes * 1000 / Math.max(1, millis); }
+        public int[] getPrincipalVariation() { return principalVariation.clone(); }
+    }
+    
+    // Told about every completed iteration of an analysis, on the searching thread
+    public interface Listener {
+        // The lines found at the new depth, best first
+        void iterationCompleted(List<Result> lines);
+    }
+    
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+    
+    // Deepens one ply at a time until the time runs out, maxDepth is reached or
+    // stop() is called, and returns the result of the deepest completed iteration
+    public Result search(Board position, long timeLimitMillis, int maxDepth) {
+        return search(position, timeLimitMillis, Strength.unlimited(maxDepth), 0L);
+    }
+    
+    // Searches within the strength's node, depth and time limits as well as the
+    // given time. The noise seed picks which way the evaluation noise falls.
+    public Result search(Board position, long timeLimitMillis, Strength strength, long noiseSeed) {
+        return iterate(position, timeLimitMillis, new AtomicLong(CLOCK_NOT_STARTED), 1, strength, noiseSeed);
+    }
+    
+    // Multi-PV analysis: the best lineCount root moves, each with its own score and
+    // line, from the deepest completed iteration. Each iteration searches the root
+    // once per line, leaving out the moves of the lines already found.
+    public List<Result> analyze(Board position, long timeLimitMillis, int maxDepth, int lineCount, Listener listener) {
+        return iterate(position, timeLimitMillis, new AtomicLong(CLOCK_NOT_STARTED), 1,
+                       Strength.unlimited(maxDepth), 0L, lineCount, listener);
+    }
+    
+    // Used directly by SearchPool. The deadline is shared by all the threads of one
+    // search: the first to start sets it from the time limit unless a ponder hit
+    // already has, and a hit while the search runs moves it for all of them.
+    Result iterate(Board position, long timeLimitMillis, AtomicLong deadline, int startDepth,
+                   Strength strength, long noiseSeed) {
+        List<Result> lines = iterate(position, timeLimitMillis, deadline, startDepth, strength, noiseSeed, 1, null);
+        return lines.isEmpty() ? new Result(PackedMove.NONE, 0, 0, 0, 0, new int[0]) : lines.get(0);
+    }
+    
+    List<Result> iterate(Board position, long timeLimitMillis, AtomicLong deadline, int startDepth,
+                         Strength strength, long noiseSeed, int lineCount, Listener listener) {
+        long start = System.currentTimeMillis();
+        board = position.copy();
+        if (accumulators != null) {
+            accumulators.reset(board);
+        }
+        nodes = 0;
+        stopped = false;
+        haveResult = false;
+        nodeLimit = strength.getNodeLimit();
+        evalNoise = strength.getEvalNoise();
+        this.noiseSeed = noiseSeed;
+        deadline.compareAndSet(CLOCK_NOT_STARTED, deadlineAfter(start, Math.min(timeLimitMillis, strength.getMaxMillis())));
+        this.deadline = deadline;
+        int maxDepth = strength.getMaxDepth();
+        
+        MoveList rootMoves = new MoveList();
+        MoveGenerator.generateLegal(board, board.getSideToMove(), rootMoves);
+        if (rootMoves.isEmpty()) {
+            return new ArrayList<>();
+        }
+        rootBitbase = Bitbases.probe(board);
+        if (rootBitbase != Bitbases.UNKNOWN) {
+            keepBestBitbaseMoves(rootMoves);
+        }
+        
+        // Until the first iteration completes, any legal move will do
+        List<Result> lines = new ArrayList<>();
+        lines.add(new Result(rootMoves.get(0), 0, 0, 0, 0, new int[] {rootMoves.get(0)}));
+        lineCount = Math.max(1, Math.min(lineCount, rootMoves.size()));
+        ordering.newSearch();
+        for (int depth = startDepth; depth <= Math.min(maxDepth, MAX_PLY); depth++) {
+            List<Result> completed = new ArrayList<>(lineCount);
+            excludedCount = 0;
+            for (int line = 0; line < lineCount; line++) {
+                Result previous = line < lines.size() ? lines.get(line) : lines.get(lines.size() - 1);
+                previousPv = previous.principalVariation;
+                int score = searchRoot(depth, previous.getScore());
+                // No line when the bitbases leave fewer root moves than lines asked for
+                if (stopped || pvLength[0] == 0) break;
+                
+                int[] principalVariation = Arrays.copyOf(pv[0], pvLength[0]);
+                completed.add(new Result(principalVariation[0], score, depth, nodes,
+                                         System.currentTimeMillis() - start, principalVariation));
+                excludedRootMoves[excludedCount++] = principalVariation[0];
+            }
+            excludedCount = 0;
+            if (stopped || completed.isEmpty()) break;
+            
+            // Searched with fewer moves each time, later lines can still come out ahead
+            completed.sort((a, b) -> b.getScore() - a.getScore());
+            lines = completed;
+            haveResult = true;
+            if (listener != null) {
+                listener.iterationCompleted(Collections.unmodifiableList(lines));
+            }
+            // No point searching deeper once a forced mate has been found within the
+            // horizon; a longer one may only be pieced together from hash entries
+            int score = lines.get(0).getScore();
+            if (Math.abs(score) >= MATE_BOUND && MATE - Math.abs(score) <= depth) break;
+        }
+        
+        return lines;
+    }
+    
+    // Searches a narrow window around the previous iteration's score first, which
+    // cuts off far more, and widens it on the side that failed until the score fits
+    private int searchRoot(int depth, int previousScore) {
+        if (!features.contains(Feature.ASPIRATION_WINDOWS) || depth < 4 || Math.abs(previousScore) >= KNOWN_WIN) {
+            return negamax(depth, -INFINITY, INFINITY, 0, true);
+        }
+        
+        int lowerWindow = ASPIRATION_WINDOW;
+        int upperWindow = ASPIRATION_WINDOW;
+        while (true) {
+            int alpha = Math.max(previousScore - lowerWindow, -INFINITY);
+            int beta = Math.min(previousScore + upperWindow, INFINITY);
+            int score = negamax(depth, alpha, beta, 0, true);
+            if (stopped) return score;
+            
+            if (score <= alpha && alpha > -INFINITY) {
+                lowerWindow *= 4;
+            } else if (score >= beta && beta < INFINITY) {
+                upperWindow *= 4;
+            } else {
+                return score;
+            }
+        }
+    }
+    
+    public void setFeature(Feature feature, boolean enabled) {
+        if (enabled) {
+            features.add(feature);
+        } else {
+            features.remove(feature);
+        }
+    }
+    
+    // Evaluates with the network from now on, or with the Evaluator again if null.
+    // Not to be called while a search is running.
+    public void setNetwork(NeuralNetwork network) {
+        accumulators = network == null ? null : new Accumulators(network, MAX_PLY);
+        evalCache.clear();
+    }
+    
+    public boolean isEnabled(Feature feature) {
+        return features.contains(feature);
+    }
+    
+    public void stop() {
+        stopRequested = true;
+    }
+    
+    void clearStop() {
+        stopRequested = false;
+    }
+    
+    // Long.MAX_VALUE, or any limit too long to add to the clock, means no deadline
+    static long deadlineAfter(long now, long millis) {
+        return millis > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + millis;
+    }
+    
+    // allowNull is false right after a null move, so two never follow each other
+    private int negamax(int depth, int alpha, int beta, int ply, boolean allowNull) {
+        if (depth <= 0) {
+            return quiescence(alpha, beta, ply);
+        }
+        
+        pvLength[ply] = 0;
+        if (countNode()) return 0;
+        
+        if (ply > 0) {
+            int result = probeBitbases(ply);
+            if (result != Bitbases.UNKNOWN) return bitbaseScore(result, ply);
+        }
+        
+        // A stored result that is deep enough and whose bound fits the window ends the node
+        long key = board.hash();
+        long entry = table.probe(key);
+        int hashMove = PackedMove.NONE;
+        if (entry != TranspositionTable.MISS) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int stored = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                    || (bound == TranspositionTable.BOUND_LOWER && stored >= beta)
+                    || (bound == TranspositionTable.BOUND_UPPER && stored <= alpha)) {
+                    return stored;
+                }
+            }
+        }
+        
+        PieceColor side = board.getSideToMove();
+        boolean inCheck = board.isSquareAttacked(board.getKingSquare(side), opponent(side));
+        boolean pvNode = beta - alpha > 1;
+        // Only worked out where a pruning decision needs it
+        int staticEval = pvNode || inCheck || ply >= MAX_PLY ? -INFINITY : evaluate();
+        
+        // Null move: let the opponent move twice in a row. If a reduced search still
+        // fails high, a real move would too. Skipped without pieces besides pawns,
+        // where passing may be better than any move (zugzwang).
+        if (features.contains(Feature.NULL_MOVE) && allowNull && !pvNode && !inCheck && ply > 0
+            && depth >= 3 && staticEval >= beta && hasPieces(side)) {
+            int reduction = depth >= 7 ? 3 : 2;
+            // Switching the side to move is the whole null move
+            board.switchSideToMove();
+            int score = -negamax(depth - 1 - reduction, -beta, -beta + 1, ply + 1, false);
+            board.switchSideToMove();
+            if (stopped) return 0;
+            
+            if (score >= beta) {
+                // Never trust a mate found by passing
+                if (score >= MATE_BOUND) score = beta;
+                if (depth < NULL_MOVE_VERIFICATION_DEPTH
+                    || negamax(depth - 1 - reduction, beta - 1, beta, ply, false) >= beta) {
+                    return score;
+                }
+                if (stopped) return 0;
+            }
+        }
+        
+        MoveList moves = moveLists[ply];
+        MoveGenerator.generateLegal(board, side, moves);
+        if (moves.isEmpty()) {
+            // Checkmate (prefer the quickest) or stalemate
+            return inCheck ? -MATE + ply : 0;
+        }
+        if (ply >= MAX_PLY) {
+            return evaluate();
+        }
+        if (ply == 0 && rootBitbase != Bitbases.UNKNOWN) {
+            keepBestBitbaseMoves(moves);
+        }
+        if (ply == 0 && excludedCount > 0) {
+            removeExcludedMoves(moves);
+            if (moves.isEmpty()) return -INFINITY;
+        }
+        
+        int pvMove = ply < previousPv.length ? previousPv[ply] : PackedMove.NONE;
+        ordering.score(board, moves, ply, pvMove, hashMove, side);
+        
+        // Futility: at the frontier, quiet moves cannot lift a score this far below alpha
+        boolean futile = features.contains(Feature.FUTILITY) && !pvNode && !inCheck
+                       && depth < FUTILITY_MARGINS.length && Math.abs(alpha) < KNOWN_WIN
+                       && staticEval + FUTILITY_MARGINS[depth] <= alpha;
+        
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = PackedMove.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = ordering.next(moves, ply, i);
+            boolean quiet = !PackedMove.isCapture(move) && !PackedMove.isPromotion(move);
+            makeMove(move);
+            boolean givesCheck = board.isSquareAttacked(board.getKingSquare(opponent(side)), side);
+            
+            if (futile && quiet && !givesCheck && i > 0) {
+                unmakeMove();
+                bestScore = Math.max(bestScore, staticEval + FUTILITY_MARGINS[depth]);
+                continue;
+            }
+            
+            int score;
+            if (i == 0) {
+                score = -negamax(depth - 1, -beta, -alpha, ply + 1, true);
+            } else {
+                // Principal variation search: later moves only have to be shown no better
+                // than the first, which a null window does cheaply. Late move reductions
+                // also search late quiet moves, which rarely turn out best, less deeply.
+                int reduction = 0;
+                if (features.contains(Feature.LATE_MOVE_REDUCTIONS) && depth >= 3 && i >= LMR_FULL_DEPTH_MOVES
+                    && quiet && !inCheck && !givesCheck && !ordering.isKiller(move, ply)) {
+                    reduction = (i >= 6 && depth >= 6) ? 2 : 1;
+                }
+                score = -negamax(depth - 1 - reduction, -alpha - 1, -alpha, ply + 1, true);
+                // Anything that beats alpha gets a full search after all
+                if (score > alpha && (reduction > 0 || score < beta) && !stopped) {
+                    score = -negamax(depth - 1, -beta, -alpha, ply + 1, true);
+                }
+            }
+            unmakeMove();
+            if (stopped) return 0;
+            
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        if (quiet) {
+                            ordering.recordCutoff(move, ply, depth, side);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                  : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT
+                  : TranspositionTable.BOUND_UPPER;
+        // A fail-low node has no trustworthy best move. A root searched without some
+        // of its moves is not worth storing.
+        if (ply > 0 || excludedCount == 0) {
+            table.store(key, bound == TranspositionTable.BOUND_UPPER ? PackedMove.NONE : bestMove,
+                        scoreToTable(bestScore, ply), depth, bound);
+        }
+        
+        return bestScore;
+    }
+    
+    // Searches captures only until the position is quiet, so the static evaluation is
+    // never taken in the middle of an exchange. The side to move may always "stand
+    // pat" on the evaluation instead of capturing, unless it is in check, in which
+    // case every evasion is searched.
+    private int quiescence(int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        if (countNode()) return 0;
+        
+        int result = probeBitbases(ply);
+        if (result != Bitbases.UNKNOWN) return bitbaseScore(result, ply);
+        
+        if (ply >= MAX_PLY) {
+            return evaluate();
+        }
+        
+        PieceColor side = board.getSideToMove();
+        boolean inCheck = board.isSquareAttacked(board.getKingSquare(side), opponent(side));
+        MoveList moves = moveLists[ply];
+        int standPat = -INFINITY;
+        if (inCheck) {
+            MoveGenerator.generateLegal(board, side, moves);
+            if (moves.isEmpty()) return -MATE + ply;
+        } else {
+            standPat = evaluate();
+            if (standPat >= beta) return standPat;
+            if (standPat > alpha) alpha = standPat;
+            MoveGenerator.generateCaptures(board, side, moves);
+        }
+        ordering.score(board, moves, ply, PackedMove.NONE, PackedMove.NONE, side);
+        
+        int bestScore = standPat;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = ordering.next(moves, ply, i);
+            if (!inCheck) {
+                // Delta pruning: skip captures that could not reach alpha even if the
+                // captured piece came for free, then those that lose the exchange
+                if (standPat + captureGain(move) + DELTA_MARGIN <= alpha) continue;
+                if (!StaticExchange.atLeast(board, move, 0)) continue;
+            }
+            
+            makeMove(move);
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            unmakeMove();
+            if (stopped) return 0;
+            
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) break;
+                }
+            }
+        }
+        
+        return bestScore;
+    }
+    
+    // The bitbase result for the side to move, or UNKNOWN where the search should go
+    // on: when the root is won or lost and this position keeps that result, since
+    // scoring every such position alike would leave no way to make progress. Draws,
+    // such as a capture down to bare kings, always count.
+    private int probeBitbases(int ply) {
+        int result = Bitbases.probe(board);
+        if (result == Bitbases.UNKNOWN || result == Bitbases.DRAW) return result;
+        // Seen from the root's side, the result flips on every ply
+        int forRoot = (ply & 1) == 0 ? result : (result == Bitbases.WIN ? Bitbases.LOSS : Bitbases.WIN);
+        return forRoot == rootBitbase ? Bitbases.UNKNOWN : result;
+    }
+    
+    // Wins found sooner score higher, like mates
+    private static int bitbaseScore(int result, int ply) {
+        if (result == Bitbases.WIN) return KNOWN_WIN - ply;
+        if (result == Bitbases.LOSS) return -KNOWN_WIN + ply;
+        return 0;
+    }
+    
+    // Drops every move that does worse than the best one according to the bitbases
+    private void removeExcludedMoves(MoveList moves) {
+        int kept = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            boolean excluded = false;
+            for (int j = 0; j < excludedCount; j++) {
+                excluded |= excludedRootMoves[j] == move;
+            }
+            if (!excluded) {
+                moves.set(kept++, move);
+            }
+        }
+        moves.truncate(kept);
+    }
+    
+    private void keepBestBitbaseMoves(MoveList moves) {
+        int[] ranks = new int[moves.size()];
+        int best = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            ranks[i] = bitbaseRank(Bitbases.probe(board));
+            board.unmakeMove();
+            best = Math.max(best, ranks[i]);
+        }
+        
+        int kept = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            if (ranks[i] == best) {
+                moves.set(kept++, moves.get(i));
+            }
+        }
+        moves.truncate(kept);
+    }
+    
+    // How good a bitbase result after our move is for us: the opponent losing is best
+    private static int bitbaseRank(int result) {
+        if (result == Bitbases.LOSS) return 2;
+        if (result == Bitbases.DRAW) return 1;
+        return 0;
+    }
+    
+    // Counts the node and looks at the clock every so often; true once the search must stop
+    private boolean countNode() {
+        if ((++nodes & (TIME_CHECK_INTERVAL - 1)) == 0
+            && (stopRequested || System.currentTimeMillis() >= deadline.get())) {
+            stopped = true;
+        }
+        if (nodes >= nodeLimit && haveResult) {
+            stopped = true;
+        }
+        return stopped;
+    }
+    
+    // Moves made during the search keep the network's accumulators in step
+    private void makeMove(int move) {
+        if (accumulators != null) {
+            accumulators.push(board, move);
+        }
+        board.makeMove(move);
+    }
+    
+    private void unmakeMove() {
+        board.unmakeMove();
+        if (accumulators != null) {
+            accumulators.pop();
+        }
+    }
+    
+    private int evaluate() {
+        int score = evalCache.probe(board.hash());
+        if (score == EvalCache.MISS) {
+            score = accumulators != null ? accumulators.evaluate(board.getSideToMove())
+                                         : Evaluator.evaluate(board, pawnTable);
+            evalCache.store(board.hash(), score);
+        }
+        if (evalNoise == 0) return score;
+        
+        // Derived from the position, so the same position always gets the same noise
+        // and hash table entries stay consistent with each other
+        long mixed = (board.hash() ^ noiseSeed) * 0x9E3779B97F4A7C15L;
+        return score + (int) ((mixed >>> 33) % (2 * evalNoise + 1)) - evalNoise;
+    }
+    
+    // Anything besides pawns and the king
+    private boolean hasPieces(PieceColor color) {
+        return (board.getColorBitboard(color) & ~board.getBitboard(color, PieceType.PAWN)
+                & ~board.getBitboard(color, PieceType.KING)) != 0L;
+    }
+    
+    private static int captureGain(int move) {
+        int gain = PackedMove.isCapture(move) ? Evaluator.PIECE_VALUES[PackedMove.captured(move).ordinal()] : 0;
+        if (PackedMove.isPromotion(move)) {
+            gain += Evaluator.PIECE_VALUES[PieceType.QUEEN.ordinal()] - Evaluator.PIECE_VALUES[PieceType.PAWN.ordinal()];
+        }
+        return gain;
+    }
+    
+    // Mate scores are stored relative to the node, not the root, so they stay
+    // correct when the same position is reached at a different ply
+    private static int scoreToTable(int score, int ply) {
+        if (score >= MATE_BOUND) return score + ply;
+        if (score <= -MATE_BOUND) return score - ply;
+        return score;
+    }
+    
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= MATE_BOUND) return score - ply;
+        if (score <= -MATE_BOUND) return score + ply;
+        return score;
+    }
+    
+    private void updatePv(int ply, int move) {
+        pv[ply][0] = move;
+        System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+        pvLength[ply] = pvLength[ply + 1] + 1;
+    }
+    
+    private static PieceColor opponent(PieceColor color) {
+        return color == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+    }
+}
@@ -0,0 +1,141 @@
+package chess.ai;
+
+import chess.game.Board;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Lazy SMP: helper threads search the same root as the main search and share its
+// transposition table, so each one fills in results the others pick up. Only the
+// main search's answer is used. With one thread it is a plain, deterministic search.
+public class SearchPool {
+    private final TranspositionTable table;
+    private final Search[] searches;
+    private final ExecutorService helpers;
+    
+    public SearchPool(TranspositionTable table, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1");
+        }
+        this.table = table;
+        this.searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(table);
+        }
+        // Daemon threads, so an idle pool never keeps the JVM alive
+        this.helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, r -> {
+            Thread thread = new Thread(r, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public int getThreads() {
+        return searches.length;
+    }
+    
+    public Search.Result search(Board position, long timeLimitMillis, int maxDepth) {
+        return search(position, timeLimitMillis, Strength.unlimited(maxDepth), 0L);
+    }
+    
+    // The strength's node budget is split between the threads, so the total work
+    // per move is the same however many there are
+    public Search.Result search(Board position, long timeLimitMillis, Strength strength, long noiseSeed) {
+        return search(position, timeLimitMillis, new AtomicLong(Search.CLOCK_NOT_STARTED), strength, noiseSeed);
+    }
+    
+    // With a deadline the caller can move while the search runs or before it starts,
+    // for pondering
+    Search.Result search(Board position, long timeLimitMillis, AtomicLong deadline, Strength strength,
+                         long noiseSeed) {
+        Strength share = strength.perThread(searches.length);
+        return withHelpers(position, timeLimitMillis, deadline, share, noiseSeed,
+                           () -> searches[0].iterate(position, timeLimitMillis, deadline, 1, share, noiseSeed));
+    }
+    
+    // Multi-PV analysis on the first thread; the helpers search as usual and only
+    // contribute through the shared table
+    public List<Search.Result> analyze(Board position, long timeLimitMillis, int maxDepth, int lineCount,
+                                       Search.Listener listener) {
+        AtomicLong deadline = new AtomicLong(Search.CLOCK_NOT_STARTED);
+        Strength strength = Strength.unlimited(maxDepth);
+        return withHelpers(position, timeLimitMillis, deadline, strength, 0L,
+                           () -> searches[0].iterate(position, timeLimitMillis, deadline, 1, strength, 0L,
+                                                     lineCount, listener));
+    }
+    
+    // Runs the main search on the calling thread with the helpers alongside it. A
+    // stop() sent before this is called ends the search too; clearStop() first to
+    // run another search after one was stopped.
+    private <T> T withHelpers(Board position, long timeLimitMillis, AtomicLong deadline, Strength strength,
+                              long noiseSeed, Supplier<T> main) {
+        table.newSearch();
+        if (helpers == null) {
+            return main.get();
+        }
+        
+        // Half of the helpers start one ply deeper so the threads spread out over
+        // different depths instead of all searching the same tree in step
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 1; i < searches.length; i++) {
+            Search helper = searches[i];
+            int startDepth = 1 + (i & 1);
+            helper.clearStop();
+            running.add(helpers.submit(() -> helper.iterate(position, timeLimitMillis, deadline, startDepth,
+                                                            strength, noiseSeed)));
+        }
+        
+        T result = main.get();
+        
+        for (int i = 1; i < searches.length; i++) {
+            searches[i].stop();
+        }
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                System.err.println("Search helper failed: " + e.getCause());
+            }
+        }
+        return result;
+    }
+    
+    public void setFeature(Search.Feature feature, boolean enabled) {
+        for (Search search : searches) {
+            search.setFeature(feature, enabled);
+        }
+    }
+    
+    // Each thread gets its own accumulators; the weights are shared
+    public void setNetwork(NeuralNetwork network) {
+        for (Search search : searches) {
+            search.setNetwork(network);
+        }
+    }
+    
+    public void stop() {
+        for (Search search : searches) {
+            search.stop();
+        }
+    }
+    
+    // Lets the next search run after a stop()
+    public void clearStop() {
+        for (Search search : searches) {
+            search.clearStop();
+        }
+    }
+    
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package chess.ai;
+
+import chess.game.Attacks;
+import chess.game.Bitboard;
+import chess.game.Board;
+import chess.game.PackedMove;
+import chess.pieces.Piece.PieceColor;
+import chess.pieces.Piece.PieceType;
+
+// Static exchange evaluation: plays out the captures on a move's target square,
+// each side always recapturing with its least valuable attacker, without making
+// any moves on the board. Pins are ignored, as usual.
+final class StaticExchange {
+    private static final PieceType[] CAPTURE_ORDER = {
+        PieceType.PAWN, PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN, PieceType.KING
+    };
+    private static final int QUEEN_VALUE = value(PieceType.QUEEN);
+    private static final int PAWN_VALUE = value(PieceType.PAWN);
+    
+    private StaticExchange() {
+    }
+    
+    // True if the exchange started by move wins at least threshold centipawns
+    // for the side making it
+    static boolean atLeast(Board board, int move, int threshold) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        boolean promotion = PackedMove.isPromotion(move);
+        
+        int swap = (PackedMove.isCapture(move) ? value(PackedMove.captured(move)) : 0)
+                 + (promotion ? QUEEN_VALUE - PAWN_VALUE : 0) - threshold;
+        if (swap < 0) return false;
+        
+        // Even losing the moved piece for nothing is still good enough
+        swap = (promotion ? QUEEN_VALUE : value(PackedMove.piece(move))) - swap;
+        if (swap <= 0) return true;
+        
+        long occupied = board.getOccupied() & ~Bitboard.bit(from) & ~Bitboard.bit(to);
+        long diagonal = board.getBitboard(PieceColor.WHITE, PieceType.BISHOP) | board.getBitboard(PieceColor.BLACK, PieceType.BISHOP)
+                      | board.getBitboard(PieceColor.WHITE, PieceType.QUEEN) | board.getBitboard(PieceColor.BLACK, PieceType.QUEEN);
+        long straight = board.getBitboard(PieceColor.WHITE, PieceType.ROOK) | board.getBitboard(PieceColor.BLACK, PieceType.ROOK)
+                      | board.getBitboard(PieceColor.WHITE, PieceType.QUEEN) | board.getBitboard(PieceColor.BLACK, PieceType.QUEEN);
+        long attackers = board.attackersTo(to, occupied);
+        
+        PieceColor side = board.getPiece(from).getColor();
+        // 1 while the side that made the move is ahead, 0 once the opponent is
+        int result = 1;
+        while (true) {
+            side = opponent(side);
+            attackers &= occupied;
+            long sideAttackers = attackers & board.getColorBitboard(side);
+            if (sideAttackers == 0L) break;
+            result ^= 1;
+            
+            PieceType attacker = null;
+            long candidates = 0L;
+            for (PieceType type : CAPTURE_ORDER) {
+                candidates = sideAttackers & board.getBitboard(side, type);
+                if (candidates != 0L) {
+                    attacker = type;
+                    break;
+                }
+            }
+            
+            // A king can only recapture if the other side has nothing left to retake with
+            if (attacker == PieceType.KING) {
+                return (attackers & ~board.getColorBitboard(side)) != 0L ? (result ^ 1) == 1 : result == 1;
+            }
+            
+            swap = value(attacker) - swap;
+            if (swap < result) break;
+            
+            // Removing the attacker may uncover a slider behind it
+            occupied &= ~Bitboard.bit(Bitboard.lsb(candidates));
+            if (attacker == PieceType.PAWN || attacker == PieceType.BISHOP || attacker == PieceType.QUEEN) {
+                attackers |= Attacks.bishop(to, occupied) & diagonal;
+            }
+            if (attacker == PieceType.ROOK || attacker == PieceType.QUEEN) {
+                attackers |= Attacks.rook(to, occupied) & straight;
+            }
+        }
+        return result == 1;
+    }
+    
+    private static int value(PieceType type) {
+        return Evaluator.PIECE_VALUES[type.ordinal()];
+    }
+    
+    private static PieceColor opponent(PieceColor color) {
+        return color == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+    }
+}
@@ -0,0 +1,72 @@
+package chess.ai;
+
+// How strongly the AI plays, expressed as limits on each move's search. Nodes and
+// depth bound the work done, the time limit is a hard cap on top of that, and
+// evaluation noise makes weaker levels misjudge positions the way people do.
+// Only strengths that ask for it play their openings from the book, so the weaker
+// levels don't open like a grandmaster and then fall apart.
+public class Strength {
+    public static final long UNLIMITED_NODES = Long.MAX_VALUE;
+    
+    private final long nodeLimit;
+    private final int maxDepth;
+    private final int evalNoise;
+    private final long maxMillis;
+    private final boolean openingBook;
+    
+    public Strength(long nodeLimit, int maxDepth, int evalNoise, long maxMillis) {
+        this(nodeLimit, maxDepth, evalNoise, maxMillis, false);
+    }
+    
+    public Strength(long nodeLimit, int maxDepth, int evalNoise, long maxMillis, boolean openingBook) {
+        if (nodeLimit < 1 || maxDepth < 1 || evalNoise < 0 || maxMillis < 1) {
+            throw new IllegalArgumentException("Invalid strength: nodes=" + nodeLimit + ", depth=" + maxDepth
+                                               + ", noise=" + evalNoise + ", ms=" + maxMillis);
+        }
+        this.nodeLimit = nodeLimit;
+        this.maxDepth = Math.min(maxDepth, Search.MAX_PLY);
+        this.evalNoise = evalNoise;
+        this.maxMillis = maxMillis;
+        this.openingBook = openingBook;
+    }
+    
+    // The share of the node budget for each of a search's threads, so the threads
+    // together stay within it
+    Strength perThread(int threads) {
+        if (threads == 1 || nodeLimit == UNLIMITED_NODES) return this;
+        return new Strength(Math.max(1, nodeLimit / threads), maxDepth, evalNoise, maxMillis, openingBook);
+    }
+    
+    // Only the depth limit, for searches bounded by the caller's time alone
+    static Strength unlimited(int maxDepth) {
+        return new Strength(UNLIMITED_NODES, maxDepth, 0, Long.MAX_VALUE);
+    }
+    
+    // Nodes all of a search's threads together may visit per move
+    public long getNodeLimit() {
+        return nodeLimit;
+    }
+    
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+    
+    // Up to this many centipawns are added to or taken from every evaluation
+    public int getEvalNoise() {
+        return evalNoise;
+    }
+    
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+    
+    public boolean usesOpeningBook() {
+        return openingBook;
+    }
+    
+    @Override
+    public String toString() {
+        return "nodes=" + (nodeLimit == UNLIMITED_NODES ? "unlimited" : String.valueOf(nodeLimit))
+             + ", depth=" + maxDepth + ", noise=" + evalNoise + ", ms=" + maxMillis + (openingBook ? ", book" : "");
+    }
+}
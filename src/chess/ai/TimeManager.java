@@ -0,0 +1,21 @@
+package chess.ai;
+
+// Splits the remaining clock time into a budget for the next move
+public final class TimeManager {
+    // Assume this many moves still have to be played on the current clock
+    private static final int MOVES_TO_GO = 30;
+    // Kept back for the time it takes to hand the move over
+    private static final long SAFETY_MARGIN_MILLIS = 50;
+    private static final long MIN_BUDGET_MILLIS = 10;
+    
+    private TimeManager() {
+    }
+    
+    public static long allocate(long remainingMillis, long incrementMillis) {
+        long usable = Math.max(0, remainingMillis - SAFETY_MARGIN_MILLIS);
+        long budget = usable / MOVES_TO_GO + incrementMillis * 3 / 4;
+        // Never spend more than half of what is left, however large the increment
+        budget = Math.min(budget, usable / 2);
+        return Math.max(budget, MIN_BUDGET_MILLIS);
+    }
+}
@@ -0,0 +1,105 @@
+package chess.ai;
+
+import java.util.Arrays;
+
+// Fixed-size hash table of search results, shared by any number of search threads
+// without locks. Each entry is two longs in one preallocated array: the position key
+// XOR-ed with the data, and the data itself. A reader recomputes the key from both
+// halves, so an entry torn by a concurrent write simply fails to match and is
+// treated as a miss.
+//
+// Data layout: bits 0-19 move, 20-35 score (offset by 32768), 36-43 depth,
+// 44-45 bound, 46-53 search generation.
+public class TranspositionTable {
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+    
+    // Returned by probe when the position is not stored; real entries are never 0
+    // since their bound is never 0
+    public static final long MISS = 0L;
+    
+    private static final int ENTRY_BYTES = 16;
+    
+    private final long[] table;
+    private final long mask;
+    private final int sizeMb;
+    private int generation;
+    
+    public TranspositionTable(int sizeMb) {
+        if (sizeMb < 1) {
+            throw new IllegalArgumentException("Hash size must be at least 1 MB");
+        }
+        // Round down to a power of two entries so the index is a mask of the key
+        long entries = Long.highestOneBit((long) sizeMb * 1024 * 1024 / ENTRY_BYTES);
+        entries = Math.min(entries, Integer.MAX_VALUE / 4);
+        this.table = new long[(int) entries * 2];
+        this.mask = entries - 1;
+        this.sizeMb = sizeMb;
+    }
+    
+    public int getSizeMb() {
+        return sizeMb;
+    }
+    
+    public void clear() {
+        Arrays.fill(table, 0L);
+        generation = 0;
+    }
+    
+    // Marks entries from earlier searches as stale, so they give way to new ones
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+    
+    public long probe(long key) {
+        int index = (int) (key & mask) << 1;
+        long data = table[index + 1];
+        if ((table[index] ^ data) != key) return MISS;
+        return data;
+    }
+    
+    // Depth-preferred: an entry is only replaced by a deeper (or equally deep) search
+    // of any position, unless it is for the same position or from an older search
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = (int) (key & mask) << 1;
+        long oldData = table[index + 1];
+        long oldKey = table[index] ^ oldData;
+        
+        if (oldData != 0L && oldKey != key && generation(oldData) == generation && depth < depth(oldData)) {
+            return;
+        }
+        // Keep the old best move when this search did not find one
+        if (move == 0 && oldKey == key) {
+            move = move(oldData);
+        }
+        
+        long data = (move & 0xFFFFFL)
+                  | ((long) (score + 32768) & 0xFFFFL) << 20
+                  | ((long) Math.max(depth, 0) & 0xFFL) << 36
+                  | ((long) bound & 0x3L) << 44
+                  | ((long) generation & 0xFFL) << 46;
+        table[index] = key ^ data;
+        table[index + 1] = data;
+    }
+    
+    public static int move(long entry) {
+        return (int) (entry & 0xFFFFFL);
+    }
+    
+    public static int score(long entry) {
+        return (int) ((entry >>> 20) & 0xFFFFL) - 32768;
+    }
+    
+    public static int depth(long entry) {
+        return (int) ((entry >>> 36) & 0xFFL);
+    }
+    
+    public static int bound(long entry) {
+        return (int) ((entry >>> 44) & 0x3L);
+    }
+    
+    private static int generation(long entry) {
+        return (int) ((entry >>> 46) & 0xFFL);
+    }
+}
@@ -0,0 +1,94 @@
+package chess.ai;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// SIMD versions of the network loops using the incubating Vector API, at the
+// widest vector size the CPU supports. Leftover elements past the last full
+// vector go through the same arithmetic one at a time, so results are identical
+// to ScalarKernels.
+final class VectorKernels implements NetworkKernels {
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    // Elements summed in int lanes before they are added to the long total. Each
+    // product of a clipped activation and a weight is at most 255 * 32768 in size,
+    // and the lane reduction adds in int too, so the whole block's sum must fit in
+    // an int: 256 products do.
+    private static final int BLOCK = 256;
+    
+    @Override
+    public void add(short[] accumulator, short[] weights, int offset, int size) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(size); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                       .add(ShortVector.fromArray(SHORTS, weights, offset + i))
+                       .intoArray(accumulator, i);
+        }
+        for (; i < size; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+    
+    @Override
+    public void move(short[] parent, short[] child, short[] weights, int removed, int added, int size) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(size); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, parent, i)
+                       .sub(ShortVector.fromArray(SHORTS, weights, removed + i))
+                       .add(ShortVector.fromArray(SHORTS, weights, added + i))
+                       .intoArray(child, i);
+        }
+        for (; i < size; i++) {
+            child[i] = (short) (parent[i] - weights[removed + i] + weights[added + i]);
+        }
+    }
+    
+    @Override
+    public void capture(short[] parent, short[] child, short[] weights, int removed, int captured, int added, int size) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(size); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, parent, i)
+                       .sub(ShortVector.fromArray(SHORTS, weights, removed + i))
+                       .sub(ShortVector.fromArray(SHORTS, weights, captured + i))
+                       .add(ShortVector.fromArray(SHORTS, weights, added + i))
+                       .intoArray(child, i);
+        }
+        for (; i < size; i++) {
+            child[i] = (short) (parent[i] - weights[removed + i] - weights[captured + i] + weights[added + i]);
+        }
+    }
+    
+    @Override
+    public long dot(short[] accumulator, short[] weights, int offset, int size, int limit) {
+        long sum = 0;
+        int i = 0;
+        int bound = SHORTS.loopBound(size);
+        while (i < bound) {
+            IntVector lanes = IntVector.zero(INTS);
+            for (int blockEnd = Math.min(bound, i + BLOCK); i < blockEnd; i += SHORTS.length()) {
+                ShortVector activations = ShortVector.fromArray(SHORTS, accumulator, i)
+                                                     .lanewise(VectorOperators.MAX, (short) 0)
+                                                     .lanewise(VectorOperators.MIN, (short) limit);
+                ShortVector weightVector = ShortVector.fromArray(SHORTS, weights, offset + i);
+                // Widen to ints, low and high halves, before multiplying
+                for (int part = 0; part < 2; part++) {
+                    IntVector a = (IntVector) activations.convert(VectorOperators.S2I, part);
+                    IntVector w = (IntVector) weightVector.convert(VectorOperators.S2I, part);
+                    lanes = lanes.add(a.mul(w));
+                }
+            }
+            sum += lanes.reduceLanesToLong(VectorOperators.ADD);
+        }
+        for (; i < size; i++) {
+            sum += Math.max(0, Math.min(accumulator[i], limit)) * weights[offset + i];
+        }
+        return sum;
+    }
+    
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+}
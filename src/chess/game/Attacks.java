@@ -0,0 +1,263 @@
+package chess.game;
+
+import chess.pieces.Piece.PieceColor;
+import java.util.Random;
+
+// Precomputed attack sets, all indexed by square (row * 8 + col)
+public final class Attacks {
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+    // Squares strictly between two squares on a shared line, and the whole line
+    // through them edge to edge (empty when they share no rank, file or diagonal)
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+    
+    private static final int[][] KNIGHT_OFFSETS = {
+        {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2},
+        {1, -2},  {1, 2},  {2, -1},  {2, 1}
+    };
+    private static final int[][] KING_OFFSETS = {
+        {-1, -1}, {-1, 0}, {-1, 1},
+        {0, -1},           {0, 1},
+        {1, -1},  {1, 0},  {1, 1}
+    };
+    private static final int[][] ROOK_DIRECTIONS = {
+        {-1, 0}, {1, 0}, {0, -1}, {0, 1}
+    };
+    private static final int[][] BISHOP_DIRECTIONS = {
+        {-1, -1}, {-1, 1}, {1, -1}, {1, 1}
+    };
+    private static final int[][] QUEEN_DIRECTIONS = {
+        {-1, 0}, {1, 0}, {0, -1}, {0, 1},
+        {-1, -1}, {-1, 1}, {1, -1}, {1, 1}
+    };
+    
+    // Magic bitboards for sliders: the relevant blockers of a square are multiplied by
+    // a magic number and shifted down to index a per-square table of attack sets
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] BISHOP_MASKS = new long[64];
+    // Found once with findMagic for this square numbering; rebuilt with a fresh search
+    // at load time only if one of them ever stops fitting its mask
+    private static final long[] ROOK_MAGICS = {
+        0x0080008420144000L, 0x0140001000402000L, 0x8100200100081040L, 0x0580100181040800L,
+        0x0480040002480180L, 0x020002001004C108L, 0x06002600180104ACL, 0x0A00010200804024L,
+        0x1102800320814002L, 0xC000808040002000L, 0x0202802000821000L, 0x4210800800801000L,
+        0x8008808044004800L, 0x0006002418100200L, 0x0A00800200010080L, 0x0202000208804114L,
+        0x0280044002200041L, 0x3010004020004008L, 0x0010002008040022L, 0x8000210008100102L,
+        0x60A2020004110820L, 0x0222008080040002L, 0x00C0840002085110L, 0x02004A0000810454L,
+        0x0080401080008020L, 0x0040200040100048L, 0x0006041200208040L, 0x2010100100210008L,
+        0x5090080080800400L, 0x0022002200042950L, 0x011010040002E108L, 0x0000240200009041L,
+        0x0010400020800080L, 0x0040401000402000L, 0x0200200080801000L, 0x4140080080801003L,
+        0x0000800400800800L, 0x0800040080800200L, 0x1008080284002110L, 0x00A001008A001444L,
+        0x3040002040908000L, 0x1000422010024000L, 0x0040402001010010L, 0x8000100008008080L,
+        0x0084008008028004L, 0x0002000204008080L, 0x0000088210040001L, 0x0280C12080520004L,
+        0x028700800C402B00L, 0x0180200040008080L, 0x80A0008020100080L, 0x0001012010008900L,
+        0x4000040108008180L, 0x000C000402008080L, 0x004B0002002C0900L, 0x0020D42040811200L,
+        0x8844520121004082L, 0x1109150082204001L, 0x0302000820408012L, 0x2081002208041001L,
+        0x0002000804201002L, 0x5101000A28040029L, 0x0100080112489004L, 0x02000E4400288102L
+    };
+    private static final long[] BISHOP_MAGICS = {
+        0x4014281015002108L, 0x0060020882029000L, 0x1104440082102120L, 0x4004410020042802L,
+        0x0011104020140040L, 0x0006074460005020L, 0x48208E0820040201L, 0x0202050401042240L,
+        0x400C401014208AA0L, 0x01C020064A424100L, 0x0012304408424000L, 0x21008808510C0004L,
+        0x0020141420000024L, 0x0004009004202009L, 0x4002008410080450L, 0x2000088280B82000L,
+        0x4040002410828602L, 0x08448030810A1410L, 0x1010032104008110L, 0x0850810802084244L,
+        0x0804000202112040L, 0x4901008610009420L, 0x31A0402411082800L, 0x8402000107620200L,
+        0x2210311041126208L, 0x0295218018020400L, 0x2092010408104400L, 0x0004040000401080L,
+        0x0020404004010041L, 0x80448A0109080618L, 0x008084110A0A0200L, 0x204C00C000A70440L,
+        0x3010106441114400L, 0x0C94115400181000L, 0x1821403000020400L, 0x2000020082480080L,
+        0x2080408020020200L, 0x0020080040068040L, 0x20089D8888190802L, 0x000F820044408408L,
+        0x2084022006089000L, 0x22510101A0401020L, 0x40000A0802009408L, 0x140483C010420200L,
+        0x0449200208811408L, 0x0002220042000100L, 0x00281000D0800201L, 0x044200A519010200L,
+        0x0300421050080002L, 0x00C0540401080004L, 0x4801010088040034L, 0x8400000210540051L,
+        0x400400404822002CL, 0x2080070448020000L, 0x1B2082100A00A000L, 0x4002021802108000L,
+        0xC000248800901000L, 0x0000024100B01100L, 0x1902103044022100L, 0x0000004404228810L,
+        0x0101000008210100L, 0x0025000820089082L, 0x0008091010008120L, 0x9120024202040010L
+    };
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+    
+    static {
+        for (int square = 0; square < 64; square++) {
+            int row = Bitboard.row(square);
+            int col = Bitboard.col(square);
+            KNIGHT[square] = offsets(row, col, KNIGHT_OFFSETS);
+            KING[square] = offsets(row, col, KING_OFFSETS);
+            // White pawns move towards row 0, black pawns towards row 7
+            PAWN[PieceColor.WHITE.ordinal()][square] = offsets(row, col, new int[][] {{-1, -1}, {-1, 1}});
+            PAWN[PieceColor.BLACK.ordinal()][square] = offsets(row, col, new int[][] {{1, -1}, {1, 1}});
+        }
+        
+        for (int from = 0; from < 64; from++) {
+            for (int[] dir : QUEEN_DIRECTIONS) {
+                long line = Bitboard.bit(from) | ray(from, dir[0], dir[1]) | ray(from, -dir[0], -dir[1]);
+                long between = 0L;
+                int row = Bitboard.row(from) + dir[0];
+                int col = Bitboard.col(from) + dir[1];
+                while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                    int to = Bitboard.square(row, col);
+                    BETWEEN[from][to] = between;
+                    LINE[from][to] = line;
+                    between |= Bitboard.bit(to);
+                    row += dir[0];
+                    col += dir[1];
+                }
+            }
+        }
+        
+        Random random = new Random(0x5EED);
+        for (int square = 0; square < 64; square++) {
+            ROOK_MASKS[square] = relevantBlockers(square, ROOK_DIRECTIONS);
+            BISHOP_MASKS[square] = relevantBlockers(square, BISHOP_DIRECTIONS);
+            ROOK_SHIFTS[square] = 64 - Bitboard.count(ROOK_MASKS[square]);
+            BISHOP_SHIFTS[square] = 64 - Bitboard.count(BISHOP_MASKS[square]);
+            ROOK_TABLE[square] = buildTable(square, ROOK_MASKS[square], ROOK_SHIFTS[square],
+                                            ROOK_MAGICS[square], ROOK_DIRECTIONS);
+            if (ROOK_TABLE[square] == null) {
+                ROOK_MAGICS[square] = findMagic(square, ROOK_MASKS[square], ROOK_SHIFTS[square],
+                                                ROOK_DIRECTIONS, random);
+                ROOK_TABLE[square] = buildTable(square, ROOK_MASKS[square], ROOK_SHIFTS[square],
+                                                ROOK_MAGICS[square], ROOK_DIRECTIONS);
+            }
+            BISHOP_TABLE[square] = buildTable(square, BISHOP_MASKS[square], BISHOP_SHIFTS[square],
+                                              BISHOP_MAGICS[square], BISHOP_DIRECTIONS);
+            if (BISHOP_TABLE[square] == null) {
+                BISHOP_MAGICS[square] = findMagic(square, BISHOP_MASKS[square], BISHOP_SHIFTS[square],
+                                                  BISHOP_DIRECTIONS, random);
+                BISHOP_TABLE[square] = buildTable(square, BISHOP_MASKS[square], BISHOP_SHIFTS[square],
+                                                  BISHOP_MAGICS[square], BISHOP_DIRECTIONS);
+            }
+        }
+    }
+    
+    private Attacks() {
+    }
+    
+    private static long offsets(int row, int col, int[][] offsets) {
+        long attacks = 0L;
+        for (int[] offset : offsets) {
+            int newRow = row + offset[0];
+            int newCol = col + offset[1];
+            if (newRow >= 0 && newRow < 8 && newCol >= 0 && newCol < 8) {
+                attacks |= Bitboard.bit(Bitboard.square(newRow, newCol));
+            }
+        }
+        return attacks;
+    }
+    
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+    
+    public static long king(int square) {
+        return KING[square];
+    }
+    
+    // Squares a pawn of the given color standing on square attacks
+    public static long pawn(PieceColor color, int square) {
+        return PAWN[color.ordinal()][square];
+    }
+    
+    public static long rook(int square, long occupied) {
+        long blockers = occupied & ROOK_MASKS[square];
+        return ROOK_TABLE[square][(int) ((blockers * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+    
+    public static long bishop(int square, long occupied) {
+        long blockers = occupied & BISHOP_MASKS[square];
+        return BISHOP_TABLE[square][(int) ((blockers * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+    
+    public static long queen(int square, long occupied) {
+        return rook(square, occupied) | bishop(square, occupied);
+    }
+    
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+    
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+    
+    // Every square from the given one to the edge in one direction, not including it
+    private static long ray(int square, int rowStep, int colStep) {
+        return slide(square, 0L, new int[][] {{rowStep, colStep}});
+    }
+    
+    // Walks each ray until it leaves the board or hits a piece (the blocker is included);
+    // only used to fill the magic tables
+    private static long slide(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        int row = Bitboard.row(square);
+        int col = Bitboard.col(square);
+        
+        for (int[] dir : directions) {
+            int newRow = row + dir[0];
+            int newCol = col + dir[1];
+            
+            while (newRow >= 0 && newRow < 8 && newCol >= 0 && newCol < 8) {
+                long bit = Bitboard.bit(Bitboard.square(newRow, newCol));
+                attacks |= bit;
+                if ((occupied & bit) != 0L) break;
+                
+                newRow += dir[0];
+                newCol += dir[1];
+            }
+        }
+        
+        return attacks;
+    }
+    
+    // Squares along each ray that can block it, not counting the last square on the edge
+    private static long relevantBlockers(int square, int[][] directions) {
+        long mask = 0L;
+        int row = Bitboard.row(square);
+        int col = Bitboard.col(square);
+        
+        for (int[] dir : directions) {
+            int newRow = row + dir[0];
+            int newCol = col + dir[1];
+            
+            while (newRow + dir[0] >= 0 && newRow + dir[0] < 8 && newCol + dir[1] >= 0 && newCol + dir[1] < 8) {
+                mask |= Bitboard.bit(Bitboard.square(newRow, newCol));
+                newRow += dir[0];
+                newCol += dir[1];
+            }
+        }
+        
+        return mask;
+    }
+    
+    // Fills the attack table for one square, or returns null if two blocker sets
+    // with different attacks collide under this magic
+    private static long[] buildTable(int square, long mask, int shift, long magic, int[][] directions) {
+        long[] table = new long[1 << (64 - shift)];
+        boolean[] used = new boolean[table.length];
+        
+        // Enumerate every subset of the mask (Carry-Rippler trick)
+        long blockers = 0L;
+        do {
+            long attacks = slide(square, blockers, directions);
+            int index = (int) ((blockers * magic) >>> shift);
+            if (used[index] && table[index] != attacks) return null;
+            used[index] = true;
+            table[index] = attacks;
+            blockers = (blockers - mask) & mask;
+        } while (blockers != 0L);
+        
+        return table;
+    }
+    
+    // Tries sparse random candidates until one maps every blocker set to a usable slot
+    private static long findMagic(int square, long mask, int shift, int[][] directions, Random random) {
+        while (true) {
+            long magic = random.nextLong() & random.nextLong() & random.nextLong();
+            if (Bitboard.count((mask * magic) & 0xFF00000000000000L) < 6) continue;
+            if (buildTable(square, mask, shift, magic, directions) != null) return magic;
+        }
+    }
+}
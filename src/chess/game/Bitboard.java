@@ -0,0 +1,41 @@
+package chess.game;
+
+import chess.pieces.Piece.PieceColor;
+import chess.pieces.Piece.PieceType;
+
+// Squares are numbered row * 8 + col, so a8 = 0 and h1 = 63 (same as Position.hashCode)
+public final class Bitboard {
+    public static final int PIECE_TYPES = 6;
+    public static final int PIECE_INDICES = 12;
+    
+    private Bitboard() {
+    }
+    
+    public static int square(int row, int col) {
+        return row * 8 + col;
+    }
+    
+    public static int row(int square) {
+        return square >>> 3;
+    }
+    
+    public static int col(int square) {
+        return square & 7;
+    }
+    
+    public static long bit(int square) {
+        return 1L << square;
+    }
+    
+    public static int pieceIndex(PieceColor color, PieceType type) {
+        return color.ordinal() * PIECE_TYPES + type.ordinal();
+    }
+    
+    public static int lsb(long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+    
+    public static int count(long bitboard) {
+        return Long.bitCount(bitboard);
+    }
+}
@@ -2,21 +2,126 @@ package chess.game;
 
 import chess.pieces.*;
 import chess.pieces.Piece.PieceColor;
+import chess.pieces.Piece.PieceType;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class Board {
-    private Piece[][] board;
-    private List<Piece> whitePieces;
-    private List<Piece> blackPieces;
-    private King whiteKing;
-    private King blackKing;
+    // Mailbox of Piece objects, kept in sync with the bitboards for the GUI and piece API
+    private Piece[] squares;
+    // One bitboard per color/type pair, indexed by Bitboard.pieceIndex
+    private long[] pieceBitboards;
+    private long[] colorBitboards;
+    private long occupied;
+    private PieceColor sideToMove;
+    // Zobrist key of the pieces and side to move, updated as pieces come and go
+    private long hash;
+    // The same, but over pawns only, for caching pawn structure evaluation
+    private long pawnHash;
+    // Per color material plus piece-square totals and the game phase, also updated
+    // incrementally so evaluating a position needs no board scan
+    private int[] middlegameScores;
+    private int[] endgameScores;
+    private int phase;
+    // Undo records for makeMove/unmakeMove, reused so taking moves back allocates nothing
+    private Undo[] history;
+    private int historySize;
+    
+    // Everything needed to take back one move made with makeMove
+    private static final class Undo {
+        int from;
+        int to;
+        Piece moved;
+        Piece captured;
+        Piece promoted;
+        boolean movedBefore;
+        Queen whiteQueen;
+        Queen blackQueen;
+    }
     
     public Board() {
-        board = new Piece[8][8];
-        whitePieces = new ArrayList<>();
-        blackPieces = new ArrayList<>();
-        initializeBoard();
+        this(true);
+    }
+    
+    private Board(boolean setup) {
+        squares = new Piece[64];
+        pieceBitboards = new long[Bitboard.PIECE_INDICES];
+        colorBitboards = new long[2];
+        occupied = 0L;
+        sideToMove = PieceColor.WHITE;
+        hash = 0L;
+        pawnHash = 0L;
+        middlegameScores = new int[2];
+        endgameScores = new int[2];
+        phase = 0;
+        history = new Undo[64];
+        historySize = 0;
+        if (setup) {
+            initializeBoard();
+        }
+    }
+    
+    // Builds a board from the piece placement and side to move fields of a FEN string.
+    // Castling and en passant fields are ignored since the game has neither.
+    public static Board fromFen(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        String[] rows = fields[0].split("/");
+        if (rows.length != 8) {
+            throw new IllegalArgumentException("Invalid FEN: " + fen);
+        }
+        
+        Board board = new Board(false);
+        for (int row = 0; row < 8; row++) {
+            int col = 0;
+            for (char c : rows[row].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    col += c - '0';
+                    continue;
+                }
+                if (col > 7) {
+                    throw new IllegalArgumentException("Invalid FEN: " + fen);
+                }
+                
+                PieceColor color = Character.isUpperCase(c) ? PieceColor.WHITE : PieceColor.BLACK;
+                Position position = Position.fromSquare(Bitboard.square(row, col));
+                Piece piece;
+                switch (Character.toLowerCase(c)) {
+                    case 'k': piece = new King(color, position); break;
+                    case 'q': piece = new Queen(color, position); break;
+                    case 'r': piece = new Rook(color, position); break;
+                    case 'b': piece = new Bishop(color, position); break;
+                    case 'n': piece = new Knight(color, position); break;
+                    case 'p': piece = new Pawn(color, position); break;
+                    default: throw new IllegalArgumentException("Invalid FEN: " + fen);
+                }
+                
+                // Pawns off their starting row have lost the double step
+                int startRow = (color == PieceColor.WHITE) ? 6 : 1;
+                piece.restore(position, piece.getType() == PieceType.PAWN && row != startRow);
+                board.placePiece(piece);
+                col++;
+            }
+            if (col != 8) {
+                throw new IllegalArgumentException("Invalid FEN: " + fen);
+            }
+        }
+        
+        if (fields.length > 1 && fields[1].equals("b")) {
+            board.switchSideToMove();
+        }
+        
+        // Move generation assumes one king per side and never lets a king be taken
+        for (PieceColor color : PieceColor.values()) {
+            if (Long.bitCount(board.getBitboard(color, PieceType.KING)) != 1) {
+                throw new IllegalArgumentException("Invalid FEN, " + color + " needs exactly one king: " + fen);
+            }
+        }
+        PieceColor waiting = board.getSideToMove() == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+        if (board.isSquareAttacked(board.getKingSquare(waiting), board.getSideToMove())) {
+            throw new IllegalArgumentException("Invalid FEN, side not to move is in check: " + fen);
+        }
+        return board;
     }
     
     private void initializeBoard() {
@@ -51,101 +156,281 @@ public class Board {
         placePiece(new Queen(PieceColor.BLACK, new Position(0, 3)));
         
         // Place kings
-        whiteKing = new King(PieceColor.WHITE, new Position(7, 4));
-        blackKing = new King(PieceColor.BLACK, new Position(0, 4));
-        placePiece(whiteKing);
-        placePiece(blackKing);
+        placePiece(new King(PieceColor.WHITE, new Position(7, 4)));
+        placePiece(new King(PieceColor.BLACK, new Position(0, 4)));
     }
     
     private void placePiece(Piece piece) {
-        Position pos = piece.getPosition();
-        board[pos.getRow()][pos.getCol()] = piece;
-        
-        if (piece.getColor() == PieceColor.WHITE) {
-            whitePieces.add(piece);
-        } else {
-            blackPieces.add(piece);
+        addPiece(piece.getPosition().getSquare(), piece);
+    }
+    
+    private void addPiece(int square, Piece piece) {
+        long bit = Bitboard.bit(square);
+        int index = Bitboard.pieceIndex(piece.getColor(), piece.getType());
+        squares[square] = piece;
+        pieceBitboards[index] |= bit;
+        hash ^= Zobrist.piece(index, square);
+        if (piece.getType() == PieceType.PAWN) {
+            pawnHash ^= Zobrist.piece(index, square);
+        }
+        middlegameScores[piece.getColor().ordinal()] += PieceSquareTables.middlegame(index, square);
+        endgameScores[piece.getColor().ordinal()] += PieceSquareTables.endgame(index, square);
+        phase += PieceSquareTables.phase(piece.getType());
+        colorBitboards[piece.getColor().ordinal()] |= bit;
+        occupied |= bit;
+    }
+    
+    private Piece removePiece(int square) {
+        Piece piece = squares[square];
+        if (piece != null) {
+            long bit = Bitboard.bit(square);
+            int index = Bitboard.pieceIndex(piece.getColor(), piece.getType());
+            squares[square] = null;
+            pieceBitboards[index] &= ~bit;
+            hash ^= Zobrist.piece(index, square);
+            if (piece.getType() == PieceType.PAWN) {
+                pawnHash ^= Zobrist.piece(index, square);
+            }
+            middlegameScores[piece.getColor().ordinal()] -= PieceSquareTables.middlegame(index, square);
+            endgameScores[piece.getColor().ordinal()] -= PieceSquareTables.endgame(index, square);
+            phase -= PieceSquareTables.phase(piece.getType());
+            colorBitboards[piece.getColor().ordinal()] &= ~bit;
+            occupied &= ~bit;
         }
+        return piece;
     }
     
     public Piece getPiece(Position position) {
         if (!position.isValid()) return null;
-        return board[position.getRow()][position.getCol()];
+        return squares[position.getSquare()];
+    }
+    
+    public Piece getPiece(int square) {
+        return squares[square];
     }
     
     public void setPiece(Position position, Piece piece) {
-        board[position.getRow()][position.getCol()] = piece;
+        int square = position.getSquare();
+        removePiece(square);
+        if (piece != null) {
+            addPiece(square, piece);
+        }
     }
     
     public boolean movePiece(Position from, Position to) {
         Piece piece = getPiece(from);
         if (piece == null) return false;
         
-        Piece captured = getPiece(to);
-        if (captured != null) {
-            if (captured.getColor() == PieceColor.WHITE) {
-                whitePieces.remove(captured);
-            } else {
-                blackPieces.remove(captured);
-            }
+        removePiece(to.getSquare());
+        removePiece(from.getSquare());
+        addPiece(to.getSquare(), piece);
+        piece.setPosition(to);
+        
+        return true;
+    }
+    
+    public boolean makeMove(Position from, Position to) {
+        return makeMove(from.getSquare(), to.getSquare());
+    }
+    
+    public boolean makeMove(int move) {
+        return makeMove(PackedMove.from(move), PackedMove.to(move));
+    }
+    
+    // Plays a move in place and hands the turn over, so it can be taken back with
+    // unmakeMove; pawns reaching the last rank are promoted to a queen, like ChessGame does
+    public boolean makeMove(int from, int to) {
+        Piece piece = squares[from];
+        if (piece == null) return false;
+        
+        if (historySize == history.length) {
+            history = Arrays.copyOf(history, historySize * 2);
         }
+        Undo undo = history[historySize];
+        if (undo == null) {
+            undo = new Undo();
+            history[historySize] = undo;
+        }
+        historySize++;
         
-        setPiece(from, null);
-        setPiece(to, piece);
-        piece.setPosition(to);
+        undo.from = from;
+        undo.to = to;
+        undo.moved = piece;
+        undo.movedBefore = piece.hasMoved();
+        undo.captured = removePiece(to);
+        undo.promoted = null;
+        
+        removePiece(from);
+        piece.setPosition(Position.fromSquare(to));
+        
+        int row = Bitboard.row(to);
+        if (piece.getType() == PieceType.PAWN && (row == 0 || row == 7)) {
+            undo.promoted = promotionQueen(undo, piece.getColor(), to);
+            addPiece(to, undo.promoted);
+        } else {
+            addPiece(to, piece);
+        }
+        switchSideToMove();
         
         return true;
     }
     
+    public void unmakeMove() {
+        Undo undo = history[--historySize];
+        
+        switchSideToMove();
+        removePiece(undo.to);
+        addPiece(undo.from, undo.moved);
+        undo.moved.restore(Position.fromSquare(undo.from), undo.movedBefore);
+        if (undo.captured != null) {
+            addPiece(undo.to, undo.captured);
+        }
+        
+        undo.moved = null;
+        undo.captured = null;
+        undo.promoted = null;
+    }
+    
+    // A promoted queen only lives on the board until its move is taken back,
+    // so each undo slot can keep handing out the same instance
+    private Queen promotionQueen(Undo undo, PieceColor color, int square) {
+        Position position = Position.fromSquare(square);
+        if (color == PieceColor.WHITE) {
+            if (undo.whiteQueen == null) {
+                undo.whiteQueen = new Queen(color, position);
+            }
+            undo.whiteQueen.restore(position, true);
+            return undo.whiteQueen;
+        }
+        if (undo.blackQueen == null) {
+            undo.blackQueen = new Queen(color, position);
+        }
+        undo.blackQueen.restore(position, true);
+        return undo.blackQueen;
+    }
+    
+    public PieceColor getSideToMove() {
+        return sideToMove;
+    }
+    
+    public void switchSideToMove() {
+        sideToMove = (sideToMove == PieceColor.WHITE) ? PieceColor.BLACK : PieceColor.WHITE;
+        hash ^= Zobrist.blackToMove();
+    }
+    
+    public long hash() {
+        return hash;
+    }
+    
+    // Zero when there are no pawns
+    public long pawnHash() {
+        return pawnHash;
+    }
+    
+    public int getMiddlegameScore(PieceColor color) {
+        return middlegameScores[color.ordinal()];
+    }
+    
+    public int getEndgameScore(PieceColor color) {
+        return endgameScores[color.ordinal()];
+    }
+    
+    // Starts at PieceSquareTables.MAX_PHASE and falls towards 0 as pieces are traded
+    public int getPhase() {
+        return phase;
+    }
+    
+    public int getKingSquare(PieceColor color) {
+        return Bitboard.lsb(pieceBitboards[Bitboard.pieceIndex(color, PieceType.KING)]);
+    }
+    
     public King getKing(PieceColor color) {
-        return (color == PieceColor.WHITE) ? whiteKing : blackKing;
+        long kings = pieceBitboards[Bitboard.pieceIndex(color, PieceType.KING)];
+        if (kings == 0L) return null;
+        return (King) squares[Bitboard.lsb(kings)];
     }
     
     public List<Piece> getPieces(PieceColor color) {
-        return (color == PieceColor.WHITE) ? new ArrayList<>(whitePieces) : new ArrayList<>(blackPieces);
+        List<Piece> pieces = new ArrayList<>();
+        long remaining = colorBitboards[color.ordinal()];
+        while (remaining != 0L) {
+            pieces.add(squares[Bitboard.lsb(remaining)]);
+            remaining &= remaining - 1;
+        }
+        return pieces;
+    }
+    
+    public long getBitboard(PieceColor color, PieceType type) {
+        return pieceBitboards[Bitboard.pieceIndex(color, type)];
+    }
+    
+    public long getColorBitboard(PieceColor color) {
+        return colorBitboards[color.ordinal()];
+    }
+    
+    public long getOccupied() {
+        return occupied;
     }
     
     public Board copy() {
-        Board copy = new Board();
-        copy.board = new Piece[8][8];
-        copy.whitePieces = new ArrayList<>();
-        copy.blackPieces = new ArrayList<>();
+        Board copy = new Board(false);
         
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                Piece piece = this.board[row][col];
-                if (piece != null) {
-                    Piece pieceCopy = piece.copy();
-                    copy.board[row][col] = pieceCopy;
-                    
-                    if (pieceCopy.getColor() == PieceColor.WHITE) {
-                        copy.whitePieces.add(pieceCopy);
-                        if (pieceCopy instanceof King) {
-                            copy.whiteKing = (King) pieceCopy;
-                        }
-                    } else {
-                        copy.blackPieces.add(pieceCopy);
-                        if (pieceCopy instanceof King) {
-                            copy.blackKing = (King) pieceCopy;
-                        }
-                    }
-                }
+        for (int square = 0; square < 64; square++) {
+            Piece piece = this.squares[square];
+            if (piece != null) {
+                copy.squares[square] = piece.copy();
             }
         }
+        System.arraycopy(this.pieceBitboards, 0, copy.pieceBitboards, 0, Bitboard.PIECE_INDICES);
+        System.arraycopy(this.colorBitboards, 0, copy.colorBitboards, 0, 2);
+        copy.occupied = this.occupied;
+        copy.sideToMove = this.sideToMove;
+        copy.hash = this.hash;
+        copy.pawnHash = this.pawnHash;
+        System.arraycopy(this.middlegameScores, 0, copy.middlegameScores, 0, 2);
+        System.arraycopy(this.endgameScores, 0, copy.endgameScores, 0, 2);
+        copy.phase = this.phase;
         
         return copy;
     }
     
     public boolean isSquareAttacked(Position position, PieceColor attackingColor) {
-        List<Piece> attackers = getPieces(attackingColor);
+        return isSquareAttacked(position.getSquare(), attackingColor);
+    }
+    
+    // Looks outward from the target square for an attacker of each kind instead of
+    // generating the attacking side's moves
+    public boolean isSquareAttacked(int square, PieceColor attackingColor) {
+        int side = attackingColor.ordinal() * Bitboard.PIECE_TYPES;
+        PieceColor defendingColor = (attackingColor == PieceColor.WHITE) ? 
+                                     PieceColor.BLACK : PieceColor.WHITE;
         
-        for (Piece attacker : attackers) {
-            List<Position> moves = attacker.getLegalMoves(this);
-            if (moves.contains(position)) {
-                return true;
-            }
-        }
+        if ((Attacks.knight(square) & pieceBitboards[side + PieceType.KNIGHT.ordinal()]) != 0L) return true;
+        if ((Attacks.king(square) & pieceBitboards[side + PieceType.KING.ordinal()]) != 0L) return true;
+        // A pawn attacks this square from where a defending pawn here would attack
+        if ((Attacks.pawn(defendingColor, square) & pieceBitboards[side + PieceType.PAWN.ordinal()]) != 0L) return true;
+        
+        long queens = pieceBitboards[side + PieceType.QUEEN.ordinal()];
+        long rooks = pieceBitboards[side + PieceType.ROOK.ordinal()] | queens;
+        if (rooks != 0L && (Attacks.rook(square, occupied) & rooks) != 0L) return true;
+        long bishops = pieceBitboards[side + PieceType.BISHOP.ordinal()] | queens;
+        return bishops != 0L && (Attacks.bishop(square, occupied) & bishops) != 0L;
+    }
+    
+    // Every piece of either color attacking the square, given an occupancy that
+    // may differ from the board's (to see through a piece that is about to move)
+    public long attackersTo(int square, long occupied) {
+        long queens = pieceBitboards[PieceType.QUEEN.ordinal()] | pieceBitboards[Bitboard.PIECE_TYPES + PieceType.QUEEN.ordinal()];
+        long rooks = pieceBitboards[PieceType.ROOK.ordinal()] | pieceBitboards[Bitboard.PIECE_TYPES + PieceType.ROOK.ordinal()] | queens;
+        long bishops = pieceBitboards[PieceType.BISHOP.ordinal()] | pieceBitboards[Bitboard.PIECE_TYPES + PieceType.BISHOP.ordinal()] | queens;
+        long knights = pieceBitboards[PieceType.KNIGHT.ordinal()] | pieceBitboards[Bitboard.PIECE_TYPES + PieceType.KNIGHT.ordinal()];
+        long kings = pieceBitboards[PieceType.KING.ordinal()] | pieceBitboards[Bitboard.PIECE_TYPES + PieceType.KING.ordinal()];
         
-        return false;
+        return (Attacks.knight(square) & knights)
+             | (Attacks.king(square) & kings)
+             | (Attacks.pawn(PieceColor.WHITE, square) & getBitboard(PieceColor.BLACK, PieceType.PAWN))
+             | (Attacks.pawn(PieceColor.BLACK, square) & getBitboard(PieceColor.WHITE, PieceType.PAWN))
+             | (Attacks.rook(square, occupied) & rooks)
+             | (Attacks.bishop(square, occupied) & bishops);
     }
 }
@@ -2,12 +2,20 @@ package chess.game;
 
 import chess.pieces.*;
 import chess.pieces.Piece.PieceColor;
+import java.util.ArrayList;
 import java.util.List;
 
 public class ChessGame {
     private Board board;
     private PieceColor currentPlayer;
     private GameState gameState;
+    // Legal moves of the current position, generated once per ply and shared by
+    // validation, game state detection, the GUI and the AI
+    private final MoveList legalMoves = new MoveList();
+    private long legalMovesHash;
+    private boolean legalMovesValid;
+    // Scratch buffer for the rare query about the side not to move
+    private final MoveList moveBuffer = new MoveList();
     
     public enum GameState {
         ACTIVE, CHECK, CHECKMATE, STALEMATE
@@ -19,6 +27,12 @@ public class ChessGame {
         gameState = GameState.ACTIVE;
     }
     
+    public ChessGame(String fen) {
+        board = Board.fromFen(fen);
+        currentPlayer = board.getSideToMove();
+        updateGameState();
+    }
+    
     public Board getBoard() {
         return board;
     }
@@ -38,8 +52,7 @@ public class ChessGame {
         if (piece == null) return false;
         if (piece.getColor() != currentPlayer) return false;
         
-        List<Position> legalMoves = getLegalMovesForPiece(from);
-        if (!legalMoves.contains(to)) return false;
+        if (getLegalMoves().find(from.getSquare(), to.getSquare()) == PackedMove.NONE) return false;
         
         // Make the move
         board.movePiece(from, to);
@@ -52,15 +65,13 @@ public class ChessGame {
                 // Promote to queen
                 Queen queen = new Queen(piece.getColor(), to);
                 board.setPiece(to, queen);
-                
-                List<Piece> pieces = board.getPieces(piece.getColor());
-                pieces.remove(piece);
-                pieces.add(queen);
             }
         }
         
         // Switch player
         currentPlayer = (currentPlayer == PieceColor.WHITE) ? PieceColor.BLACK : PieceColor.WHITE;
+        board.switchSideToMove();
+        legalMovesValid = false;
         
         // Update game state
         updateGameState();
@@ -68,55 +79,61 @@ public class ChessGame {
         return true;
     }
     
+    // Packed legal moves of the side to move. The list is owned by the game and
+    // stays valid until the position changes; callers must not modify it.
+    public MoveList getLegalMoves() {
+        // The hash check also catches callers that played on the board directly
+        if (!legalMovesValid || legalMovesHash != board.hash()) {
+            MoveGenerator.generateLegal(board, currentPlayer, legalMoves);
+            legalMovesHash = board.hash();
+            legalMovesValid = true;
+        }
+        return legalMoves;
+    }
+    
+    public List<Move> getAllLegalMoves() {
+        MoveList moves = getLegalMoves();
+        List<Move> allMoves = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            allMoves.add(PackedMove.toMove(moves.get(i)));
+        }
+        return allMoves;
+    }
+    
+    // Position-list view of the legal moves, used by the GUI
     public List<Position> getLegalMovesForPiece(Position position) {
         Piece piece = board.getPiece(position);
         if (piece == null) return List.of();
         
-        List<Position> pseudoLegalMoves = piece.getLegalMoves(board);
-        List<Position> legalMoves = new java.util.ArrayList<>();
+        MoveList moves;
+        if (piece.getColor() == currentPlayer) {
+            moves = getLegalMoves();
+        } else {
+            MoveGenerator.generateLegal(board, piece.getColor(), moveBuffer);
+            moves = moveBuffer;
+        }
         
-        // Filter out moves that would leave king in check
-        for (Position move : pseudoLegalMoves) {
-            if (isMoveLegal(position, move)) {
-                legalMoves.add(move);
+        List<Position> pieceMoves = new ArrayList<>();
+        int from = position.getSquare();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (PackedMove.from(move) == from) {
+                pieceMoves.add(Position.fromSquare(PackedMove.to(move)));
             }
         }
         
-        return legalMoves;
-    }
-    
-    private boolean isMoveLegal(Position from, Position to) {
-        // Make a copy of the board and try the move
-        Board testBoard = board.copy();
-        testBoard.movePiece(from, to);
-        
-        // Check if our king is in check after the move
-        Piece piece = board.getPiece(from);
-        King ourKing = testBoard.getKing(piece.getColor());
-        PieceColor opponentColor = (piece.getColor() == PieceColor.WHITE) ? 
-                                    PieceColor.BLACK : PieceColor.WHITE;
-        
-        return !testBoard.isSquareAttacked(ourKing.getPosition(), opponentColor);
+        return pieceMoves;
     }
     
     private void updateGameState() {
         // Check if current player is in check
-        King currentKing = board.getKing(currentPlayer);
         PieceColor opponentColor = (currentPlayer == PieceColor.WHITE) ? 
                                     PieceColor.BLACK : PieceColor.WHITE;
         
-        boolean inCheck = board.isSquareAttacked(currentKing.getPosition(), opponentColor);
+        boolean inCheck = board.isSquareAttacked(board.getKingSquare(currentPlayer), opponentColor);
         
         // Check if current player has any legal moves
-        boolean hasLegalMoves = false;
-        List<Piece> pieces = board.getPieces(currentPlayer);
-        
-        for (Piece piece : pieces) {
-            if (!getLegalMovesForPiece(piece.getPosition()).isEmpty()) {
-                hasLegalMoves = true;
-                break;
-            }
-        }
+        boolean hasLegalMoves = !getLegalMoves().isEmpty();
         
         if (!hasLegalMoves) {
             gameState = inCheck ? GameState.CHECKMATE : GameState.STALEMATE;
@@ -129,5 +146,6 @@ public class ChessGame {
         board = new Board();
         currentPlayer = PieceColor.WHITE;
         gameState = GameState.ACTIVE;
+        legalMovesValid = false;
     }
 }
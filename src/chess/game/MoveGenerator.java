@@ -0,0 +1,155 @@
+package chess.game;
+
+import chess.pieces.Piece;
+import chess.pieces.Piece.PieceColor;
+import chess.pieces.Piece.PieceType;
+
+// Strictly legal move generation into a caller-supplied MoveList. Checkers and
+// pinned pieces are worked out up front, so no move is ever played to test it,
+// and nothing is allocated.
+public final class MoveGenerator {
+    
+    private MoveGenerator() {
+    }
+    
+    public static int generateLegal(Board board, PieceColor color, MoveList moves) {
+        return generate(board, color, moves, false);
+    }
+    
+    // Only legal captures and promotions, for the quiescence search
+    public static int generateCaptures(Board board, PieceColor color, MoveList moves) {
+        return generate(board, color, moves, true);
+    }
+    
+    private static int generate(Board board, PieceColor color, MoveList moves, boolean capturesOnly) {
+        moves.clear();
+        PieceColor opponentColor = (color == PieceColor.WHITE) ? PieceColor.BLACK : PieceColor.WHITE;
+        long own = board.getColorBitboard(color);
+        long enemy = board.getColorBitboard(opponentColor);
+        long occupied = board.getOccupied();
+        int king = board.getKingSquare(color);
+        
+        // King moves are checked against enemy attacks with the king lifted off the
+        // board, so it cannot step back along the ray of a slider checking it
+        long kingless = occupied & ~Bitboard.bit(king);
+        long kingTargets = Attacks.king(king) & (capturesOnly ? enemy : ~own);
+        while (kingTargets != 0L) {
+            int to = Bitboard.lsb(kingTargets);
+            if ((board.attackersTo(to, kingless) & enemy) == 0L) {
+                addMove(board, king, to, PieceType.KING, moves);
+            }
+            kingTargets &= kingTargets - 1;
+        }
+        
+        // In double check only the king can move
+        long checkers = board.attackersTo(king, occupied) & enemy;
+        if (Bitboard.count(checkers) > 1) return moves.size();
+        
+        // In single check other pieces must capture the checker or block its ray
+        long evasionMask = -1L;
+        if (checkers != 0L) {
+            evasionMask = checkers | Attacks.between(king, Bitboard.lsb(checkers));
+        }
+        long pinned = pinnedPieces(board, opponentColor, king, own, occupied);
+        long pieceTargets = evasionMask & (capturesOnly ? enemy : ~own);
+        
+        addPawnMoves(board, color, enemy, king, pinned, evasionMask, capturesOnly, moves);
+        addPieceMoves(board, color, PieceType.KNIGHT, king, pinned, pieceTargets, moves);
+        addPieceMoves(board, color, PieceType.BISHOP, king, pinned, pieceTargets, moves);
+        addPieceMoves(board, color, PieceType.ROOK, king, pinned, pieceTargets, moves);
+        addPieceMoves(board, color, PieceType.QUEEN, king, pinned, pieceTargets, moves);
+        
+        return moves.size();
+    }
+    
+    // Own pieces that are the only blocker between the king and an enemy slider
+    private static long pinnedPieces(Board board, PieceColor opponentColor, int king, long own, long occupied) {
+        long queens = board.getBitboard(opponentColor, PieceType.QUEEN);
+        long snipers = (Attacks.rook(king, 0L) & (board.getBitboard(opponentColor, PieceType.ROOK) | queens))
+                     | (Attacks.bishop(king, 0L) & (board.getBitboard(opponentColor, PieceType.BISHOP) | queens));
+        
+        long pinned = 0L;
+        while (snipers != 0L) {
+            long blockers = Attacks.between(king, Bitboard.lsb(snipers)) & occupied;
+            if (blockers != 0L && (blockers & (blockers - 1)) == 0L) {
+                pinned |= blockers & own;
+            }
+            snipers &= snipers - 1;
+        }
+        return pinned;
+    }
+    
+    private static void addPieceMoves(Board board, PieceColor color, PieceType type, int king,
+                                      long pinned, long allowed, MoveList moves) {
+        long occupied = board.getOccupied();
+        long pieces = board.getBitboard(color, type);
+        while (pieces != 0L) {
+            int from = Bitboard.lsb(pieces);
+            pieces &= pieces - 1;
+            
+            long targets;
+            switch (type) {
+                case KNIGHT: targets = Attacks.knight(from); break;
+                case BISHOP: targets = Attacks.bishop(from, occupied); break;
+                case ROOK: targets = Attacks.rook(from, occupied); break;
+                default: targets = Attacks.queen(from, occupied); break;
+            }
+            targets &= allowed;
+            // A pinned piece may only slide along the pin line
+            if ((pinned & Bitboard.bit(from)) != 0L) {
+                targets &= Attacks.line(king, from);
+            }
+            
+            while (targets != 0L) {
+                addMove(board, from, Bitboard.lsb(targets), type, moves);
+                targets &= targets - 1;
+            }
+        }
+    }
+    
+    private static void addPawnMoves(Board board, PieceColor color, long enemy, int king,
+                                     long pinned, long evasionMask, boolean capturesOnly, MoveList moves) {
+        long empty = ~board.getOccupied();
+        // White pawns move towards row 0, black pawns towards row 7
+        int step = (color == PieceColor.WHITE) ? -8 : 8;
+        int startRow = (color == PieceColor.WHITE) ? 6 : 1;
+        int lastRow = (color == PieceColor.WHITE) ? 0 : 7;
+        
+        long pawns = board.getBitboard(color, PieceType.PAWN);
+        while (pawns != 0L) {
+            int from = Bitboard.lsb(pawns);
+            pawns &= pawns - 1;
+            
+            long allowed = evasionMask;
+            if ((pinned & Bitboard.bit(from)) != 0L) {
+                allowed &= Attacks.line(king, from);
+            }
+            boolean promotion = Bitboard.row(from + step) == lastRow;
+            
+            // Pushes only count as captures-only moves when they promote
+            int oneForward = from + step;
+            if ((empty & Bitboard.bit(oneForward)) != 0L && (promotion || !capturesOnly)) {
+                if ((allowed & Bitboard.bit(oneForward)) != 0L) {
+                    moves.add(PackedMove.encode(from, oneForward, PieceType.PAWN, null, promotion));
+                }
+                
+                int twoForward = oneForward + step;
+                if (Bitboard.row(from) == startRow && (empty & allowed & Bitboard.bit(twoForward)) != 0L) {
+                    moves.add(PackedMove.encode(from, twoForward, PieceType.PAWN, null, false));
+                }
+            }
+            
+            long captures = Attacks.pawn(color, from) & enemy & allowed;
+            while (captures != 0L) {
+                int to = Bitboard.lsb(captures);
+                moves.add(PackedMove.encode(from, to, PieceType.PAWN, board.getPiece(to).getType(), promotion));
+                captures &= captures - 1;
+            }
+        }
+    }
+    
+    private static void addMove(Board board, int from, int to, PieceType type, MoveList moves) {
+        Piece captured = board.getPiece(to);
+        moves.add(PackedMove.encode(from, to, type, captured == null ? null : captured.getType(), false));
+    }
+}
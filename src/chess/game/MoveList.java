@@ -0,0 +1,54 @@
+package chess.game;
+
+// Reusable buffer of packed moves; clear and refill it instead of allocating a new list
+public class MoveList {
+    // No chess position has more than 218 legal moves
+    public static final int CAPACITY = 256;
+    
+    private final int[] moves = new int[CAPACITY];
+    private int size;
+    
+    public void clear() {
+        size = 0;
+    }
+    
+    public void add(int move) {
+        moves[size++] = move;
+    }
+    
+    public int get(int index) {
+        return moves[index];
+    }
+    
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    // Keeps the first newSize moves, used when filtering in place
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+    
+    public void swap(int i, int j) {
+        int tmp = moves[i];
+        moves[i] = moves[j];
+        moves[j] = tmp;
+    }
+    
+    public int find(int from, int to) {
+        for (int i = 0; i < size; i++) {
+            if (PackedMove.from(moves[i]) == from && PackedMove.to(moves[i]) == to) {
+                return moves[i];
+            }
+        }
+        return PackedMove.NONE;
+    }
+}
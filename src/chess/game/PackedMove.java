@@ -0,0 +1,68 @@
+package chess.game;
+
+import chess.pieces.Piece.PieceType;
+
+// A move packed into an int, so move lists can be plain int arrays:
+//   bits 0-5   from square        bits 12-14  moving piece type
+//   bits 6-11  to square          bits 15-17  captured piece type + 1 (0 = none)
+//   bit  18    promotion (always to a queen in this game)
+// Zero is never a real move and is used as "no move".
+public final class PackedMove {
+    public static final int NONE = 0;
+    
+    private static final int TO_SHIFT = 6;
+    private static final int PIECE_SHIFT = 12;
+    private static final int CAPTURED_SHIFT = 15;
+    private static final int PROMOTION_FLAG = 1 << 18;
+    
+    private static final PieceType[] TYPES = PieceType.values();
+    
+    private PackedMove() {
+    }
+    
+    public static int encode(int from, int to, PieceType piece, PieceType captured, boolean promotion) {
+        int move = from | (to << TO_SHIFT) | (piece.ordinal() << PIECE_SHIFT);
+        if (captured != null) {
+            move |= (captured.ordinal() + 1) << CAPTURED_SHIFT;
+        }
+        if (promotion) {
+            move |= PROMOTION_FLAG;
+        }
+        return move;
+    }
+    
+    public static int from(int move) {
+        return move & 63;
+    }
+    
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & 63;
+    }
+    
+    public static PieceType piece(int move) {
+        return TYPES[(move >>> PIECE_SHIFT) & 7];
+    }
+    
+    public static boolean isCapture(int move) {
+        return ((move >>> CAPTURED_SHIFT) & 7) != 0;
+    }
+    
+    // Only meaningful when isCapture(move) is true
+    public static PieceType captured(int move) {
+        return TYPES[((move >>> CAPTURED_SHIFT) & 7) - 1];
+    }
+    
+    public static boolean isPromotion(int move) {
+        return (move & PROMOTION_FLAG) != 0;
+    }
+    
+    public static Move toMove(int move) {
+        return new Move(Position.fromSquare(from(move)), Position.fromSquare(to(move)));
+    }
+    
+    // Coordinate notation, e.g. "e2e4"
+    public static String toString(int move) {
+        if (move == NONE) return "none";
+        return Position.fromSquare(from(move)).toString() + Position.fromSquare(to(move)).toString();
+    }
+}
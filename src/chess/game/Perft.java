@@ -0,0 +1,138 @@
+package chess.game;
+
+// Counts the leaf nodes of the legal move tree to a fixed depth. Checks the move
+// generator against known counts and gives a repeatable nodes-per-second figure.
+//
+//   java -cp bin chess.game.Perft                      run the reference suite
+//   java -cp bin chess.game.Perft <depth> [fen]        count one position
+//   java -cp bin chess.game.Perft divide <depth> [fen] count per root move
+public class Perft {
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+    
+    // Counts follow this game's rules: no castling, no en passant, promotion always
+    // to a queen. Where those never come up they match the published perft numbers;
+    // the rest were cross-checked against an independent generator.
+    private static final Object[][] SUITE = {
+        {"Start position", START_FEN, new long[] {20, 400, 8902, 197281}},
+        {"Kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1",
+            new long[] {46, 1865, 86585}},
+        {"Rook endgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            new long[] {14, 191, 2810, 43087}},
+        {"Promotions", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w - - 0 1",
+            new long[] {6, 222, 7855}},
+        {"Discovered checks", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w - - 1 8",
+            new long[] {40, 1339, 51750}},
+        {"Middlegame", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            new long[] {46, 2079, 89890}}
+    };
+    
+    public static long perft(ChessGame game, int depth) {
+        return perft(game.getBoard(), depth, buffers(depth));
+    }
+    
+    // One move buffer per ply, so the count itself allocates nothing
+    private static long perft(Board board, int depth, MoveList[] buffers) {
+        if (depth == 0) return 1;
+        
+        MoveList moves = buffers[depth - 1];
+        MoveGenerator.generateLegal(board, board.getSideToMove(), moves);
+        
+        // Leaf moves only need counting, not playing
+        if (depth == 1) return moves.size();
+        
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += perft(board, depth - 1, buffers);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+    
+    public static long divide(ChessGame game, int depth) {
+        Board board = game.getBoard();
+        MoveList[] buffers = buffers(depth);
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(board, board.getSideToMove(), moves);
+        
+        long total = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.makeMove(move);
+            long nodes = perft(board, depth - 1, buffers);
+            board.unmakeMove();
+            
+            System.out.println(PackedMove.toString(move) + ": " + nodes);
+            total += nodes;
+        }
+        return total;
+    }
+    
+    private static MoveList[] buffers(int depth) {
+        MoveList[] buffers = new MoveList[Math.max(depth, 1)];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new MoveList();
+        }
+        return buffers;
+    }
+    
+    private static boolean runSuite() {
+        boolean allPassed = true;
+        long totalNodes = 0;
+        long totalNanos = 0;
+        
+        for (Object[] entry : SUITE) {
+            String name = (String) entry[0];
+            String fen = (String) entry[1];
+            long[] expected = (long[]) entry[2];
+            
+            for (int depth = 1; depth <= expected.length; depth++) {
+                ChessGame game = new ChessGame(fen);
+                long start = System.nanoTime();
+                long nodes = perft(game, depth);
+                long elapsed = System.nanoTime() - start;
+                totalNodes += nodes;
+                totalNanos += elapsed;
+                
+                boolean passed = nodes == expected[depth - 1];
+                allPassed &= passed;
+                System.out.printf("%-18s depth %d  %10d nodes  %s  %s%n", name, depth, nodes,
+                                  passed ? "OK  " : "FAIL (expected " + expected[depth - 1] + ")",
+                                  formatSpeed(nodes, elapsed));
+            }
+        }
+        
+        System.out.println();
+        System.out.println((allPassed ? "All positions passed" : "Some positions FAILED") + ", " +
+                           totalNodes + " nodes, " + formatSpeed(totalNodes, totalNanos));
+        return allPassed;
+    }
+    
+    private static String formatSpeed(long nodes, long nanos) {
+        long millis = nanos / 1_000_000;
+        long nps = nanos > 0 ? nodes * 1_000_000_000L / nanos : 0;
+        return millis + " ms, " + nps + " nps";
+    }
+    
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.exit(runSuite() ? 0 : 1);
+        }
+        
+        boolean divide = args[0].equals("divide");
+        int argIndex = divide ? 1 : 0;
+        int depth = Integer.parseInt(args[argIndex]);
+        StringBuilder fen = new StringBuilder();
+        for (int i = argIndex + 1; i < args.length; i++) {
+            fen.append(args[i]).append(' ');
+        }
+        ChessGame game = new ChessGame(fen.length() > 0 ? fen.toString() : START_FEN);
+        
+        long start = System.nanoTime();
+        long nodes = divide ? divide(game, depth) : perft(game, depth);
+        long elapsed = System.nanoTime() - start;
+        
+        System.out.println();
+        System.out.println("Nodes: " + nodes + " (" + formatSpeed(nodes, elapsed) + ")");
+    }
+}
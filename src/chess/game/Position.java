@@ -1,6 +1,14 @@
 package chess.game;
 
 public class Position {
+    private static final Position[] SQUARES = new Position[64];
+    
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new Position(square >>> 3, square & 7);
+        }
+    }
+    
     private final int row;
     private final int col;
     
@@ -9,6 +17,11 @@ public class Position {
         this.col = col;
     }
     
+    // Shared instance for a square index (row * 8 + col), avoids allocating in hot paths
+    public static Position fromSquare(int square) {
+        return SQUARES[square];
+    }
+    
     public int getRow() {
         return row;
     }
@@ -17,6 +30,10 @@ public class Position {
         return col;
     }
     
+    public int getSquare() {
+        return row * 8 + col;
+    }
+    
     public boolean isValid() {
         return row >= 0 && row < 8 && col >= 0 && col < 8;
     }
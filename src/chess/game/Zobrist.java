@@ -0,0 +1,31 @@
+package chess.game;
+
+import java.util.Random;
+
+// Random keys XOR-ed together to give every position a 64-bit hash
+public final class Zobrist {
+    private static final long[][] PIECE_SQUARE = new long[Bitboard.PIECE_INDICES][64];
+    private static final long BLACK_TO_MOVE;
+    
+    static {
+        // Fixed seed so hashes stay the same between runs and between servers
+        Random random = new Random(0x2C0B1573L);
+        for (int piece = 0; piece < Bitboard.PIECE_INDICES; piece++) {
+            for (int square = 0; square < 64; square++) {
+                PIECE_SQUARE[piece][square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+    
+    private Zobrist() {
+    }
+    
+    public static long piece(int pieceIndex, int square) {
+        return PIECE_SQUARE[pieceIndex][square];
+    }
+    
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+}
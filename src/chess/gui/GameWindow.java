@@ -17,6 +17,7 @@ import java.io.File;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class GameWindow extends JFrame {
     private ChessGame game;
@@ -30,6 +31,7 @@ public class GameWindow extends JFrame {
     private JLabel trophyLabel;
     private Map<String, Image> pieceImages;
     private boolean isAIGame;
+    private CompletableFuture<Move> pendingAIMove;
     
     private static final int SQUARE_SIZE = 80;
     private static final Color LIGHT_SQUARE = new Color(240, 217, 181);
@@ -46,6 +48,9 @@ public class GameWindow extends JFrame {
         if (aiDifficulty != null) {
             this.isAIGame = true;
             this.ai = new ChessAI(PieceColor.BLACK, aiDifficulty);
+            // Let the Hard AI think on the player's time; a missed guess costs a
+            // move's worth of work, which the capped levels shouldn't spend
+            this.ai.setPondering(aiDifficulty == ChessAI.DifficultyLevel.HARD);
         } else {
             this.isAIGame = false;
         }
@@ -101,7 +106,7 @@ public class GameWindow extends JFrame {
                 .getScaledInstance(SQUARE_SIZE - 10, SQUARE_SIZE - 10, Image.SCALE_SMOOTH));
             pieceImages.put("BLACK_PAWN", spriteSheet.getSubimage(5 * pieceWidth, pieceHeight, pieceWidth, pieceHeight)
                 .getScaledInstance(SQUARE_SIZE - 10, SQUARE_SIZE - 10, Image.SCALE_SMOOTH));
-            
+        
         } catch (Exception e) {
             System.err.println("Error loading piece images: " + e.getMessage());
         }
@@ -211,18 +216,40 @@ public class GameWindow extends JFrame {
     
     private void makeAIMove() {
         Timer timer = new Timer(500, e -> {
-            Move aiMove = ai.getBestMove(game);
-            if (aiMove != null) {
-                game.makeMove(aiMove.getFrom(), aiMove.getTo());
-                updateBoard();
-                updateStatus();
-                checkGameEnd();
-            }
+            // The window was closed while the timer ran
+            if (!isDisplayable()) return;
+            // Search off the event thread so the window stays responsive
+            CompletableFuture<Move> search = ai.getBestMoveAsync(game);
+            pendingAIMove = search;
+            search.whenComplete((aiMove, error) -> SwingUtilities.invokeLater(() -> {
+                // Ignore searches that were cancelled or replaced by a new game
+                if (search != pendingAIMove) return;
+                pendingAIMove = null;
+                
+                if (error != null) {
+                    System.err.println("AI search failed: " + error.getMessage());
+                } else if (aiMove != null) {
+                    game.makeMove(aiMove.getFrom(), aiMove.getTo());
+                    updateBoard();
+                    updateStatus();
+                    checkGameEnd();
+                }
+            }));
         });
         timer.setRepeats(false);
         timer.start();
     }
     
+    private void cancelAIMove() {
+        if (pendingAIMove != null) {
+            pendingAIMove.cancel(false);
+            pendingAIMove = null;
+        }
+        if (ai != null) {
+            ai.stopPondering();
+        }
+    }
+    
     private void updateBoard() {
         Board board = game.getBoard();
         
@@ -299,7 +326,7 @@ public class GameWindow extends JFrame {
                 int trophyLoss = accountManager.getCurrentAccount().getTrophyLossAmount();
                 showGameEndDialog("DEFEAT", "You lost. -" + trophyLoss + " Trophies", new Color(231, 76, 60));
             }
-            
+        
         } else if (game.getGameState() == ChessGame.GameState.STALEMATE) {
             accountManager.recordDraw();
             showGameEndDialog("DRAW", "Game ended in stalemate", new Color(149, 165, 166));
@@ -325,6 +352,7 @@ public class GameWindow extends JFrame {
             new String[]{"Play Again", "Main Menu"}, "Play Again");
         
         if (choice == 0) {
+            cancelAIMove();
             game.reset();
             selectedPosition = null;
             highlightedMoves = List.of();
@@ -353,6 +381,10 @@ public class GameWindow extends JFrame {
     }
     
     private void returnToMainMenu() {
+        cancelAIMove();
+        if (ai != null) {
+            ai.shutdown();
+        }
         MainMenu mainMenu = new MainMenu(accountManager);
         mainMenu.setVisible(true);
         dispose();
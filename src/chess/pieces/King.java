@@ -1,9 +1,6 @@
 package chess.pieces;
 
 import chess.game.Position;
-import chess.game.Board;
-import java.util.ArrayList;
-import java.util.List;
 
 public class King extends Piece {
     
@@ -16,32 +13,6 @@ public class King extends Piece {
         return PieceType.KING;
     }
     
-    @Override
-    public List<Position> getLegalMoves(Board board) {
-        List<Position> moves = new ArrayList<>();
-        int row = position.getRow();
-        int col = position.getCol();
-        
-        // All 8 directions around the king
-        int[][] directions = {
-            {-1, -1}, {-1, 0}, {-1, 1},
-            {0, -1},           {0, 1},
-            {1, -1},  {1, 0},  {1, 1}
-        };
-        
-        for (int[] dir : directions) {
-            Position newPos = new Position(row + dir[0], col + dir[1]);
-            if (newPos.isValid()) {
-                Piece target = board.getPiece(newPos);
-                if (target == null || isOpponent(target)) {
-                    moves.add(newPos);
-                }
-            }
-        }
-        
-        return moves;
-    }
-    
     @Override
     public Piece copy() {
         King copy = new King(this.color, this.position);
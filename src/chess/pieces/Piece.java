@@ -1,8 +1,6 @@
 package chess.pieces;
 
 import chess.game.Position;
-import chess.game.Board;
-import java.util.List;
 
 public abstract class Piece {
     protected final PieceColor color;
@@ -39,17 +37,13 @@ public abstract class Piece {
         return hasMoved;
     }
     
-    public abstract PieceType getType();
+    // Puts the piece back where it was, used when a move is taken back
+    public void restore(Position position, boolean hasMoved) {
+        this.position = position;
+        this.hasMoved = hasMoved;
+    }
     
-    public abstract List<Position> getLegalMoves(Board board);
+    public abstract PieceType getType();
     
     public abstract Piece copy();
-    
-    protected boolean isOpponent(Piece other) {
-        return other != null && other.color != this.color;
-    }
-    
-    protected boolean isSameColor(Piece other) {
-        return other != null && other.color == this.color;
-    }
 }
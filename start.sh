@@ -1,5 +1,5 @@
 ﻿#!/bin/bash
 mkdir -p bin
 find src -name '*.java' > sources.txt
-javac -d bin -cp src @sources.txt
+javac --add-modules jdk.incubator.vector -d bin -cp src @sources.txt
 java -cp bin chess.online.ChessServer
\ No newline at end of file
@@ -0,0 +1,18 @@
+@echo off
+echo Compiling Chess Pro checks...
+if not exist bin mkdir bin
+if not exist bin-test mkdir bin-test
+
+javac --add-modules jdk.incubator.vector -d bin -sourcepath src src\Main.java src\chess\account\*.java src\chess\ai\*.java src\chess\game\*.java src\chess\pieces\*.java src\chess\menu\*.java src\chess\gui\*.java
+if %ERRORLEVEL% NEQ 0 goto failed
+javac -d bin-test -cp bin test\chess\ai\*.java
+if %ERRORLEVEL% NEQ 0 goto failed
+
+java --add-modules jdk.incubator.vector -cp bin;bin-test chess.ai.AnalysisTest
+goto end
+
+:failed
+echo.
+echo Compilation failed!
+:end
+pause
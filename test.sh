@@ -0,0 +1,7 @@
+#!/bin/bash
+echo "Compiling Chess Pro checks..."
+mkdir -p bin bin-test
+find src -name "*.java" > /tmp/sources.txt
+javac --add-modules jdk.incubator.vector -d bin -cp src @/tmp/sources.txt || exit 1
+javac -d bin-test -cp bin $(find test -name "*.java") || exit 1
+java --add-modules jdk.incubator.vector -cp bin:bin-test chess.ai.AnalysisTest
@@ -0,0 +1,66 @@
+package chess.ai;
+
+import chess.game.ChessGame;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Checks for ChessAI.analyze; exits with status 1 if any fails.
+//
+//   java -cp bin:bin-test chess.ai.AnalysisTest
+public class AnalysisTest {
+    private static final String MIDDLEGAME = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+    
+    private static int failures;
+    
+    public static void main(String[] args) throws Exception {
+        analysisWithoutTimeLimitRunsUntilMoveNow();
+        analysisReturnsDistinctLinesBestFirst();
+        
+        if (failures > 0) {
+            System.out.println(failures + " check(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All checks passed");
+        System.exit(0);
+    }
+    
+    private static void analysisWithoutTimeLimitRunsUntilMoveNow() throws Exception {
+        ChessGame game = new ChessGame(MIDDLEGAME);
+        ChessAI ai = new ChessAI(game.getCurrentPlayer(), ChessAI.DifficultyLevel.HARD, 1L);
+        AtomicInteger iterations = new AtomicInteger();
+        CompletableFuture<List<Search.Result>> analysis = ai.analyze(game, 2, Long.MAX_VALUE,
+                                                                     lines -> iterations.incrementAndGet());
+        
+        Thread.sleep(2000);
+        check(!analysis.isDone(), "analysis with no time limit still running after 2 s");
+        
+        ai.moveNow();
+        List<Search.Result> lines = analysis.get(5, TimeUnit.SECONDS);
+        check(lines.size() == 2, "two lines after moveNow, got " + lines.size());
+        check(lines.get(0).getDepth() > 3, "deeper than 3 plies after 2 s, got " + lines.get(0).getDepth());
+        check(iterations.get() == lines.get(0).getDepth(), "listener told about every completed depth");
+        ai.shutdown();
+    }
+    
+    private static void analysisReturnsDistinctLinesBestFirst() throws Exception {
+        ChessGame game = new ChessGame(MIDDLEGAME);
+        ChessAI ai = new ChessAI(game.getCurrentPlayer(), ChessAI.DifficultyLevel.HARD, 1L);
+        List<Search.Result> lines = ai.analyze(game, 4, 500, null).get(5, TimeUnit.SECONDS);
+        ai.shutdown();
+        
+        check(lines.size() == 4, "four lines, got " + lines.size());
+        for (int i = 1; i < lines.size(); i++) {
+            check(lines.get(i).getScore() <= lines.get(i - 1).getScore(), "line " + (i + 1) + " scores no better than line " + i);
+            for (int j = 0; j < i; j++) {
+                check(lines.get(i).getBestMove() != lines.get(j).getBestMove(), "lines " + (j + 1) + " and " + (i + 1) + " differ");
+            }
+        }
+    }
+    
+    private static void check(boolean condition, String description) {
+        System.out.println((condition ? "ok      " : "FAILED  ") + description);
+        if (!condition) failures++;
+    }
+}